@@ -0,0 +1,46 @@
+package com.uni.vetclinicapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Runs every request, together with the blocking repository calls made while handling it, on its own Java 21 virtual thread,
+ * instead of on the fixed pool of Tomcat threads. Enabled with "app.virtualThreads=true".
+ * A request blocked on the database then only parks its virtual thread, so the number of requests in flight is no longer capped
+ * by the size of the Tomcat pool, but by "spring.datasource.hikari.maximum-pool-size", which should be sized for the database.
+ * The CPU heavy password hashing keeps running on its own bounded pool of platform threads.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.virtualThreads", havingValue = "true")
+public class VirtualThreadConfig {
+
+    /**
+     * Replaces the executor of the Tomcat connector with one, which starts a virtual thread per request.
+     *
+     * @return - the customizer of the Tomcat protocol handler.
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Requests are handled on virtual threads.");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Runs the application's asynchronous tasks on virtual threads as well.
+     *
+     * @return - the executor for @Async methods and asynchronous request processing.
+     */
+    @Bean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
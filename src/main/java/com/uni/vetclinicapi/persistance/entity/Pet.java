@@ -15,9 +15,17 @@ import lombok.*;
 @AllArgsConstructor
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Entity
-@Table(name = "pets")
+// The names of an owner's pets are unique, the index also serves every lookup of the pets by owner.
+// The other indexes back the keyset pagination of the pet search, filtered by specie, breed or both.
+@Table(name = "pets", uniqueConstraints = @UniqueConstraint(name = Pet.OWNER_NAME_CONSTRAINT, columnNames = {"owner_id", "name"}), indexes = {
+        @Index(name = "idx_pets_specie_breed_id", columnList = "specie, breed, id"),
+        @Index(name = "idx_pets_specie_id", columnList = "specie, id"),
+        @Index(name = "idx_pets_breed_id", columnList = "breed, id")
+})
 public class Pet extends BaseEntity{
 
+    public static final String OWNER_NAME_CONSTRAINT = "uk_pets_owner_id_name";
+
     @Column(nullable = false)
     private String name;
 
@@ -0,0 +1,48 @@
+package com.uni.vetclinicapi.persistance.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Holds a revocation, which has to outlive a restart - either a single revoked token, or all tokens of a deleted user.
+ * Kept only until the revoked tokens expire.
+ * Every entity gets its UUID from {@link BaseEntity}.
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Entity
+// The unique token id lets only one instance revoke a refresh token, so a refresh token is exchanged once even across instances.
+@Table(name = "revoked_tokens",
+        uniqueConstraints = @UniqueConstraint(name = RevokedToken.TOKEN_ID_CONSTRAINT, columnNames = "tokenId"),
+        indexes = @Index(name = "idx_revoked_tokens_expires_at", columnList = "expiresAt"))
+public class RevokedToken extends BaseEntity {
+
+    public static final String TOKEN_ID_CONSTRAINT = "uk_revoked_tokens_token_id";
+
+    // The id of the revoked token, null when all tokens of a deleted user are revoked.
+    private String tokenId;
+
+    // The id of the deleted user, null when a single token is revoked.
+    private UUID userId;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    public static RevokedToken ofToken(String tokenId, Instant expiresAt) {
+        return new RevokedToken(tokenId, null, expiresAt);
+    }
+
+    public static RevokedToken ofDeletedUser(UUID userId, Instant expiresAt) {
+        return new RevokedToken(null, userId, expiresAt);
+    }
+}
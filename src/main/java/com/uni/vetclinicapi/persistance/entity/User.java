@@ -1,17 +1,24 @@
 package com.uni.vetclinicapi.persistance.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.CreationTimestamp;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -26,15 +33,20 @@ import java.util.Set;
 @ToString
 @Entity
 @Builder
-@Table(name = "users")
+// The indexes back the keyset pagination of the user listings, the id breaks ties between equal usernames or creation times.
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_username_id", columnList = "username, id"),
+        @Index(name = "idx_users_created_at_id", columnList = "createdAt, id")
+})
 public class User extends BaseEntity implements UserDetails {
 
     @NotBlank
     @Size(min = 3, max = 20)
     private String username;
 
+    // Holds the encoded password with its "{id}" prefix, Argon2 and PBKDF2 hashes are longer than 80 characters.
     @NotBlank
-    @Size(max = 80, min = 5)
+    @Size(max = 255, min = 5)
     @JsonIgnore
     private String password;
 
@@ -58,10 +70,35 @@ public class User extends BaseEntity implements UserDetails {
     private String vetType = null;
 
     // Fetch type is set to eager, cause we need to know the roles of each user at all times, they don't have many different roles, so our query won't be that slow and heavy to execute.
+    // Indexed by role, so that the users with a given role are found without scanning the whole table.
+    // Batched, so the roles of the users loaded by one query, like the vets of a page of visits, are fetched together instead of one user at a time.
     @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = 50)
+    @JoinTable(name = "users_authorities",
+            joinColumns = @JoinColumn(name = "user_id"),
+            inverseJoinColumns = @JoinColumn(name = "authorities_id"),
+            indexes = @Index(name = "idx_users_authorities_role", columnList = "authorities_id, user_id"))
     @JsonIgnore
     private Set<Role> authorities = new HashSet<>();
 
+    // Tokens issued with a lower version than this one are revoked, it is increased when the user logs out of all sessions.
+    @Column(nullable = false)
+    @JsonIgnore
+    private int tokenVersion;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    // Set while the user's history is purged in the background, the user can't log in anymore, but is deleted only once the purge completes.
+    @Column(nullable = false)
+    @JsonIgnore
+    private boolean pendingDeletion;
+
+    public User(String username, String password, String email, String fName, String lName, String phoneNumber, String vetType, Set<Role> authorities) {
+        this(username, password, email, fName, lName, phoneNumber, vetType, authorities, 0, null, false);
+    }
+
     @Override
     @JsonIgnore
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -89,6 +126,6 @@ public class User extends BaseEntity implements UserDetails {
     @Override
     @JsonIgnore
     public boolean isEnabled() {
-        return true;
+        return !pendingDeletion;
     }
 }
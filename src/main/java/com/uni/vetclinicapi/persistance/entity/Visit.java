@@ -13,9 +13,14 @@ import java.sql.Time;
 @AllArgsConstructor
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @Entity
-@Table(name = "visits")
+// A vet has at most one visit at a time, which stops double bookings, that the in-memory schedule of another instance doesn't see.
+// The index backs the timeline of a pet, which pages through its visits from the latest one back, the id breaks ties between visits at the same time.
+@Table(name = "visits", uniqueConstraints = @UniqueConstraint(name = Visit.VET_DATE_TIME_CONSTRAINT, columnNames = {"vet_id", "date", "time"}),
+        indexes = @Index(name = "idx_visits_pet_id_date", columnList = "pet_id, date, time, id"))
 public class Visit extends BaseEntity{
 
+    public static final String VET_DATE_TIME_CONSTRAINT = "uk_visits_vet_id_date_time";
+
     @Column(name = "date")
     private Date date;
 
@@ -0,0 +1,13 @@
+package com.uni.vetclinicapi.persistance.projection;
+
+/**
+ * Read-only number of Pets with a specie and a breed, used to load and maintain the facet counts of the pet search.
+ */
+public interface PetFacetCount {
+
+    String getSpecie();
+
+    String getBreed();
+
+    long getCount();
+}
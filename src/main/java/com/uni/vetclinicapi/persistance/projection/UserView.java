@@ -0,0 +1,37 @@
+package com.uni.vetclinicapi.persistance.projection;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Read-only view of a User for the exports, holding only the columns of the users table, without the roles and the password.
+ */
+@Schema(description = "Read-only view of a User, used by the exports.")
+public interface UserView {
+
+    @Schema(description = "Id of the User.", example = "480d68e4-3f13-48f0-a6ec-c94b4d0d7683")
+    UUID getId();
+
+    @Schema(description = "The username of the user")
+    String getUsername();
+
+    @Schema(description = "The email of the user")
+    String getEmail();
+
+    @Schema(description = "The first name of the user")
+    String getFirstName();
+
+    @Schema(description = "The last name of the user")
+    String getLastName();
+
+    @Schema(description = "The phone number of the user")
+    String getPhoneNumber();
+
+    @Schema(description = "The type of vet")
+    String getVetType();
+
+    @Schema(description = "When the user was registered.")
+    Instant getCreatedAt();
+}
@@ -0,0 +1,19 @@
+package com.uni.vetclinicapi.persistance.projection;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.UUID;
+
+/**
+ * Read-only time of a Visit with its vet, used to load the schedules of the vets.
+ */
+public interface VisitSlot {
+
+    UUID getId();
+
+    UUID getVetId();
+
+    Date getDate();
+
+    Time getTime();
+}
@@ -1,9 +1,12 @@
 package com.uni.vetclinicapi.persistance.repository;
 
 import com.uni.vetclinicapi.persistance.entity.Medication;
+import com.uni.vetclinicapi.service.dto.MedicationViewDTO;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,4 +17,12 @@ import java.util.UUID;
 public interface MedicationRepository extends JpaRepository<Medication, UUID> {
 
     Optional<Medication> findByName(String name);
+
+    /**
+     * Provides read-only views of all medications, which aren't loaded as managed entities.
+     *
+     * @return - collection of medication views.
+     */
+    @Query("select m.id as id, m.name as name, m.type as type, m.quantity as quantity, m.description as description from Medication m")
+    List<MedicationViewDTO> findAllViews();
 }
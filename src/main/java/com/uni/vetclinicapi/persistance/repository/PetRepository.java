@@ -1,12 +1,22 @@
 package com.uni.vetclinicapi.persistance.repository;
 
 import com.uni.vetclinicapi.persistance.entity.Pet;
-import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.persistance.projection.PetFacetCount;
+import com.uni.vetclinicapi.service.dto.PetViewDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Provides basic CRUD operations and other needed query methods, regarding the Pet entities.
@@ -15,12 +25,135 @@ import java.util.UUID;
 public interface PetRepository extends JpaRepository<Pet, UUID> {
 
     /**
-     * Provides collection of cars related to the specified user.
+     * Checks whether the specified user already has a pet with the name, with a single probe of the (owner_id, name) index.
      *
-     * @param user - the id of the specified user.
-     * @return - collection of cars related to the user.
+     * @param userId - the id of the owner.
+     * @param name - the name of the pet.
+     * @return - true if such a pet exists.
      */
-    List<Pet> findAllByUser(User user);
+    boolean existsByUserIdAndName(UUID userId, String name);
 
-    void deleteAllByUser(User user);
+    /**
+     * Checks whether the pet exists and belongs to the specified user.
+     *
+     * @param id - the id of the pet.
+     * @param userId - the id of the owner.
+     * @return - true if the user owns such a pet.
+     */
+    boolean existsByIdAndUserId(UUID id, UUID userId);
+
+    /**
+     * Provides which of the given names the specified user already has pets with, in a single query.
+     *
+     * @param userId - the id of the owner.
+     * @param names - the names to check.
+     * @return - collection of the taken names.
+     */
+    @Query("select p.name from Pet p where p.user.id = :userId and p.name in :names")
+    List<String> findExistingNames(@Param("userId") UUID userId, @Param("names") Collection<String> names);
+
+    /**
+     * Deletes all pets of the specified user with a single statement, the visits of the pets have to be deleted before.
+     *
+     * @param userId - the id of the owner.
+     * @return - the number of deleted pets.
+     */
+    @Modifying
+    @Query("delete from Pet p where p.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Provides the ids of a chunk of the pets of the specified user, which are deleted next by a purge.
+     *
+     * @param userId - the id of the owner.
+     * @param pageable - limits the number of ids.
+     * @return - collection of pet ids.
+     */
+    @Query("select p.id from Pet p where p.user.id = :userId")
+    List<UUID> findIdsByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Provides read-only views of the pets owned by the specified user.
+     * Only the needed columns are selected, the owner is read from the foreign key, so no entity is loaded or managed.
+     *
+     * @param userId - the id of the owner.
+     * @return - collection of pet views.
+     */
+    @Query("select p.id as id, p.name as name, p.specie as specie, p.breed as breed, p.user.id as ownerId from Pet p where p.user.id = :userId")
+    List<PetViewDTO> findAllViewsByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Provides the next page of all pets ordered by id, starting right after the given id.
+     *
+     * @param afterId - the id of the last pet from the previous page.
+     * @param pageable - limits the number of returned pets.
+     * @return - collection of pet views.
+     */
+    @Query("select p.id as id, p.name as name, p.specie as specie, p.breed as breed, p.user.id as ownerId from Pet p " +
+            "where p.id > :afterId order by p.id")
+    List<PetViewDTO> findViewPage(@Param("afterId") UUID afterId, Pageable pageable);
+
+    /**
+     * Provides the next page of the pets of a specie ordered by id, starting right after the given id, through the (specie, id) index.
+     *
+     * @param specie - the specie of the pets.
+     * @param afterId - the id of the last pet from the previous page.
+     * @param pageable - limits the number of returned pets.
+     * @return - collection of pet views.
+     */
+    @Query("select p.id as id, p.name as name, p.specie as specie, p.breed as breed, p.user.id as ownerId from Pet p " +
+            "where p.specie = :specie and p.id > :afterId order by p.id")
+    List<PetViewDTO> findViewPageBySpecie(@Param("specie") String specie, @Param("afterId") UUID afterId, Pageable pageable);
+
+    /**
+     * Provides the next page of the pets of a breed ordered by id, starting right after the given id, through the (breed, id) index.
+     *
+     * @param breed - the breed of the pets.
+     * @param afterId - the id of the last pet from the previous page.
+     * @param pageable - limits the number of returned pets.
+     * @return - collection of pet views.
+     */
+    @Query("select p.id as id, p.name as name, p.specie as specie, p.breed as breed, p.user.id as ownerId from Pet p " +
+            "where p.breed = :breed and p.id > :afterId order by p.id")
+    List<PetViewDTO> findViewPageByBreed(@Param("breed") String breed, @Param("afterId") UUID afterId, Pageable pageable);
+
+    /**
+     * Provides the next page of the pets of a specie and breed ordered by id, starting right after the given id, through the (specie, breed, id) index.
+     *
+     * @param specie - the specie of the pets.
+     * @param breed - the breed of the pets.
+     * @param afterId - the id of the last pet from the previous page.
+     * @param pageable - limits the number of returned pets.
+     * @return - collection of pet views.
+     */
+    @Query("select p.id as id, p.name as name, p.specie as specie, p.breed as breed, p.user.id as ownerId from Pet p " +
+            "where p.specie = :specie and p.breed = :breed and p.id > :afterId order by p.id")
+    List<PetViewDTO> findViewPageBySpecieAndBreed(@Param("specie") String specie, @Param("breed") String breed, @Param("afterId") UUID afterId, Pageable pageable);
+
+    /**
+     * Counts all pets by specie and breed. Scans the whole table, so it only loads the facet counts on start up.
+     *
+     * @return - the number of pets of every specie and breed.
+     */
+    @Query("select p.specie as specie, p.breed as breed, count(p) as count from Pet p group by p.specie, p.breed")
+    List<PetFacetCount> countAllBySpecieAndBreed();
+
+    /**
+     * Counts the pets of the specified user by specie and breed, before they are deleted with the user.
+     *
+     * @param userId - the id of the owner.
+     * @return - the number of the user's pets of every specie and breed.
+     */
+    @Query("select p.specie as specie, p.breed as breed, count(p) as count from Pet p where p.user.id = :userId group by p.specie, p.breed")
+    List<PetFacetCount> countByUserIdBySpecieAndBreed(@Param("userId") UUID userId);
+
+    /**
+     * Streams read-only views of all pets for the exports, fetching a fixed number of rows from the database at a time.
+     * Has to be consumed and closed inside a transaction.
+     *
+     * @return - stream of pet views, ordered by id.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select p.id as id, p.name as name, p.specie as specie, p.breed as breed, p.user.id as ownerId from Pet p order by p.id")
+    Stream<PetViewDTO> streamAllViews();
 }
@@ -0,0 +1,39 @@
+package com.uni.vetclinicapi.persistance.repository;
+
+import com.uni.vetclinicapi.persistance.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Provides basic CRUD operations and other needed query methods, regarding the RevokedToken entities.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, UUID> {
+
+    /**
+     * Provides the revocations, whose tokens haven't expired yet.
+     *
+     * @param now - the current time.
+     * @return - a List of the revocations, which are still needed.
+     */
+    List<RevokedToken> findAllByExpiresAtAfter(Instant now);
+
+    /**
+     * Deletes the revocations, whose tokens have expired, through the expiresAt index.
+     *
+     * @param now - the current time.
+     * @return - the number of deleted revocations.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt <= :now")
+    int deleteAllExpired(@Param("now") Instant now);
+}
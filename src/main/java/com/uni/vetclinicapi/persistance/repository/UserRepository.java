@@ -2,12 +2,23 @@ package com.uni.vetclinicapi.persistance.repository;
 
 import com.uni.vetclinicapi.persistance.entity.Role;
 import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.persistance.projection.UserView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Provides basic CRUD operations and other needed query methods, regarding the User entities.
@@ -23,5 +34,73 @@ public interface UserRepository extends JpaRepository<User, UUID> {
      */
     Optional<User> findByUsername(String username);
 
+    /**
+     * Provides which of the given usernames are already taken, in a single query.
+     *
+     * @param usernames - the usernames to check.
+     * @return - a List of the usernames, which belong to existing Users.
+     */
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Provides the Users with the given Role together with all of their Roles, in a single query.
+     * The Role filter is an indexed lookup in the users_authorities table.
+     *
+     * @param role - the Role the Users need to have.
+     * @return - a List of the matching Users, with their Roles fetched.
+     */
+    @EntityGraph(attributePaths = "authorities")
     List<User> findAllByAuthoritiesContaining(Role role);
+
+    /**
+     * Provides all Users together with their Roles, in a single query.
+     *
+     * @return - a List of all Users, with their Roles fetched.
+     */
+    @EntityGraph(attributePaths = "authorities")
+    @Query("select u from User u")
+    List<User> findAllWithAuthorities();
+
+    /**
+     * Provides the Users, who have revoked their tokens at least once.
+     *
+     * @param tokenVersion - the token version, which the users have to exceed.
+     * @return - a List of the matching Users.
+     */
+    List<User> findAllByTokenVersionGreaterThan(int tokenVersion);
+
+    /**
+     * Provides the next page of Users ordered by username, starting right after the given username and id.
+     * Seeks through the (username, id) index, instead of skipping over the rows of the previous pages.
+     *
+     * @param username - the username of the last User from the previous page.
+     * @param id       - the id of the last User from the previous page.
+     * @param pageable - limits the number of returned Users.
+     * @return - a List of the matching Users.
+     */
+    @Query("select u from User u where u.username > :username or (u.username = :username and u.id > :id) order by u.username, u.id")
+    List<User> findPageOrderedByUsername(@Param("username") String username, @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Provides the next page of Users ordered by creation time, starting right after the given creation time and id.
+     *
+     * @param createdAt - the creation time of the last User from the previous page.
+     * @param id        - the id of the last User from the previous page.
+     * @param pageable  - limits the number of returned Users.
+     * @return - a List of the matching Users.
+     */
+    @Query("select u from User u where u.createdAt > :createdAt or (u.createdAt = :createdAt and u.id > :id) order by u.createdAt, u.id")
+    List<User> findPageOrderedByCreatedAt(@Param("createdAt") Instant createdAt, @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Streams read-only views of all Users for the exports, fetching a fixed number of rows from the database at a time.
+     * Has to be consumed and closed inside a transaction.
+     *
+     * @return - a Stream of the User views, ordered by id.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select u.id as id, u.username as username, u.email as email, u.fName as firstName, u.lName as lastName, " +
+            "u.phoneNumber as phoneNumber, u.vetType as vetType, u.createdAt as createdAt from User u order by u.id")
+    Stream<UserView> streamAllViews();
 }
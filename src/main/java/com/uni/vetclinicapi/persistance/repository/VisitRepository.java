@@ -2,14 +2,24 @@ package com.uni.vetclinicapi.persistance.repository;
 
 import com.uni.vetclinicapi.persistance.entity.User;
 import com.uni.vetclinicapi.persistance.entity.Visit;
+import com.uni.vetclinicapi.persistance.projection.VisitSlot;
+import com.uni.vetclinicapi.service.dto.VisitViewDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Date;
 import java.sql.Time;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Provides basic CRUD operations and other needed query methods, regarding the Visit entities.
@@ -17,10 +27,76 @@ import java.util.UUID;
 @Repository
 public interface VisitRepository extends JpaRepository<Visit, UUID> {
 
-    Optional<Visit> findByDateAndTime(Date date, Time time);
-
     List<Visit> findAllByUser(User user);
 
-    void deleteAllByUser(User user);
+    /**
+     * Deletes, with a single statement, every visit the specified user is part of - as the one who made it, as the vet or as the owner of the pet.
+     *
+     * @param userId - the id of the user.
+     * @return - the number of deleted visits.
+     */
+    @Modifying
+    @Query("delete from Visit v where v.user.id = :userId or v.vet.id = :userId or v.pet.id in (select p.id from Pet p where p.user.id = :userId)")
+    int deleteAllInvolvingUser(@Param("userId") UUID userId);
+
+    /**
+     * Provides the ids of a chunk of the visits the specified user is part of, which are deleted next by a purge.
+     *
+     * @param userId - the id of the user.
+     * @param pageable - limits the number of ids.
+     * @return - collection of visit ids.
+     */
+    @Query("select v.id from Visit v where v.user.id = :userId or v.vet.id = :userId or v.pet.id in (select p.id from Pet p where p.user.id = :userId)")
+    List<UUID> findIdsInvolvingUser(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Provides read-only views of the visits made by the specified user, with the id and name of the pet and the vet.
+     * Only the needed columns are selected, so no entity is loaded or managed.
+     *
+     * @param userId - the id of the user, who made the visits.
+     * @return - collection of visit views.
+     */
+    @Query("select v.id as id, v.date as date, v.time as time, v.isApproved as approved, v.description as description, v.user.id as userId, " +
+            "p.id as petId, p.name as petName, vt.id as vetId, vt.fName as vetFirstName, vt.lName as vetLastName, vt.vetType as vetType " +
+            "from Visit v left join v.pet p left join v.vet vt where v.user.id = :userId")
+    List<VisitViewDTO> findAllViewsByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Provides the next page of the visits of the specified pet from the latest one back, starting right before the given date, time and id.
+     * Seeks through the (pet_id, date, time, id) index, and fetches the vet of every visit in the same query.
+     *
+     * @param petId - the id of the pet.
+     * @param date - the date of the last visit from the previous page.
+     * @param time - the time of the last visit from the previous page.
+     * @param id - the id of the last visit from the previous page.
+     * @param pageable - limits the number of returned visits.
+     * @return - collection of visits with their vets.
+     */
+    @EntityGraph(attributePaths = "vet")
+    @Query("select v from Visit v where v.pet.id = :petId " +
+            "and (v.date < :date or (v.date = :date and (v.time < :time or (v.time = :time and v.id < :id)))) " +
+            "order by v.date desc, v.time desc, v.id desc")
+    List<Visit> findTimelinePage(@Param("petId") UUID petId, @Param("date") Date date, @Param("time") Time time, @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Provides the times and vets of the visits on or after the specified date, to load the schedules of the vets on start up.
+     *
+     * @param date - the first date of the visits.
+     * @return - collection of visit slots.
+     */
+    @Query("select v.id as id, v.vet.id as vetId, v.date as date, v.time as time from Visit v where v.date >= :date and v.vet is not null")
+    List<VisitSlot> findSlotsFrom(@Param("date") Date date);
+
+    /**
+     * Streams read-only views of all visits for the exports, fetching a fixed number of rows from the database at a time.
+     * Has to be consumed and closed inside a transaction.
+     *
+     * @return - stream of visit views, ordered by id.
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select v.id as id, v.date as date, v.time as time, v.isApproved as approved, v.description as description, v.user.id as userId, " +
+            "p.id as petId, p.name as petName, vt.id as vetId, vt.fName as vetFirstName, vt.lName as vetLastName, vt.vetType as vetType " +
+            "from Visit v left join v.pet p left join v.vet vt order by v.id")
+    Stream<VisitViewDTO> streamAllViews();
 
 }
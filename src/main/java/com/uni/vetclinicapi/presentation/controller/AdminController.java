@@ -1,9 +1,14 @@
 package com.uni.vetclinicapi.presentation.controller;
 
+import com.uni.vetclinicapi.service.ExportService;
+import com.uni.vetclinicapi.service.FileFormat;
+import com.uni.vetclinicapi.service.ImportService;
 import com.uni.vetclinicapi.service.PetService;
 import com.uni.vetclinicapi.service.UserService;
 import com.uni.vetclinicapi.service.dto.ApiErrorResponseDTO;
-import com.uni.vetclinicapi.service.dto.FullPetDTO;
+import com.uni.vetclinicapi.service.dto.CursorPageDTO;
+import com.uni.vetclinicapi.service.dto.ImportResultDTO;
+import com.uni.vetclinicapi.service.dto.PetViewDTO;
 import com.uni.vetclinicapi.service.dto.UserInfoDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,10 +19,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -31,39 +41,63 @@ public class AdminController {
 
     private final PetService petService;
 
+    private final ExportService exportService;
+
+    private final ImportService importService;
+
 
     /**
-     * Retrieves all users from database
+     * Retrieves a page of all users from database
      *
-     * @return - response entity containing a list with all users with status code OK.
+     * @param size  - number of users on the page.
+     * @param after - cursor of the previous page, null for the first page.
+     * @param sort  - order of the users, either username or createdAt.
+     * @return - response entity containing a list with the users on the page with status code OK, the cursor of the next page is in the X-Next-Cursor header.
      */
-    @Operation(summary = "Retrieves all users.", description = "Allows the admin to get all registered users.", tags = {"admin"})
+    @Operation(summary = "Retrieves all users.", description = "Allows the admin to get all registered users, one page at a time.", tags = {"admin"})
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully fetched all users.", content = @Content(schema = @Schema(implementation = List.class))),
+            @ApiResponse(responseCode = "200", description = "Successfully fetched a page of users.", content = @Content(schema = @Schema(implementation = List.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page size, sort or cursor.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
     })
     @GetMapping("/users")
-    public ResponseEntity<List<UserInfoDTO>> getAllUsers() {
-        return new ResponseEntity<>(userService.getAllUsers(), HttpStatus.OK);
+    public ResponseEntity<List<UserInfoDTO>> getAllUsers(
+            @Parameter(description = "Number of users on the page, at most \"app.maxPageSize\".")
+            @RequestParam(value = "size", required = false) Integer size,
+            @Parameter(description = "Cursor of the previous page, taken from its X-Next-Cursor header. Omitted for the first page.")
+            @RequestParam(value = "after", required = false) String after,
+            @Parameter(description = "Order of the users, either username or createdAt.")
+            @RequestParam(value = "sort", defaultValue = "username") String sort) {
+        CursorPageDTO<UserInfoDTO> page = userService.getAllUsers(size, after, sort);
+        return new ResponseEntity<>(page.getItems(), CursorPageHeaders.of(page), HttpStatus.OK);
     }
 
 
     /**
      * Deletes a user.
      *
+     * With "async" the user is disabled right away, but the user's history and then the user are deleted in the background.
+     *
      * @param userId - id for user to delete.
-     * @return - response with status code OK if the user was deleted successfully or CONFLICT if the user with this id does not exist.
+     * @param async - whether to purge the user in the background, for users with a very large history.
+     * @return - response with status code OK if the user was deleted successfully, ACCEPTED if the purge was started or NOT_FOUND if the user with this id does not exist.
      */
     @Operation(summary = "Deletes a User.", description = "Deletes a User from database.", tags = {"admin"})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Deletes Pet from database.", content = @Content(schema = @Schema(implementation = UserInfoDTO.class))),
+            @ApiResponse(responseCode = "202", description = "Disables the User and purges it from database in the background.", content = @Content(schema = @Schema(implementation = UserInfoDTO.class))),
             @ApiResponse(responseCode = "404", description = "User does not exist in the database", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
     })
     @DeleteMapping("/users")
     public ResponseEntity<UserInfoDTO> deleteUser(
             @Parameter(description = "User id.")
-            @RequestParam("userId") @NotNull UUID userId) {
+            @RequestParam("userId") @NotNull UUID userId,
+            @Parameter(description = "Purge the user in the background.")
+            @RequestParam(value = "async", defaultValue = "false") boolean async) {
+        if (async) {
+            return new ResponseEntity<>(userService.purgeUser(userId), HttpStatus.ACCEPTED);
+        }
         return new ResponseEntity<>(userService.deleteUser(userId), HttpStatus.OK);
     }
 
@@ -101,11 +135,96 @@ public class AdminController {
             @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
     })
     @GetMapping("/users/{userId}/pets")
-    public ResponseEntity<List<FullPetDTO>> getAllPetsForUserById(
+    public ResponseEntity<List<PetViewDTO>> getAllPetsForUserById(
             @Parameter(description = "User id.")
             @PathVariable("userId") @NotNull UUID userId) {
         return new ResponseEntity<>(petService.findAllPetsForUserById(userId), HttpStatus.OK);
     }
 
+    /**
+     * Streams all users as a file, without loading them in memory.
+     *
+     * @param format - the format of the file, NDJSON or CSV.
+     * @return - response with status code OK, whose body is written while the users are read.
+     */
+    @Operation(summary = "Exports all Users.", description = "Streams all Users from database as NDJSON or CSV.", tags = {"admin"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streams the Users."),
+            @ApiResponse(responseCode = "400", description = "Invalid format.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+    })
+    @GetMapping("/export/users")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @Parameter(description = "Format of the file, NDJSON or CSV.")
+            @RequestParam(value = "format", defaultValue = "NDJSON") FileFormat format) {
+        return exportResponse("users", format, outputStream -> exportService.exportUsers(format, outputStream));
+    }
+
+    /**
+     * Streams all pets as a file, without loading them in memory.
+     *
+     * @param format - the format of the file, NDJSON or CSV.
+     * @return - response with status code OK, whose body is written while the pets are read.
+     */
+    @Operation(summary = "Exports all Pets.", description = "Streams all Pets from database as NDJSON or CSV.", tags = {"admin"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streams the Pets."),
+            @ApiResponse(responseCode = "400", description = "Invalid format.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+    })
+    @GetMapping("/export/pets")
+    public ResponseEntity<StreamingResponseBody> exportPets(
+            @Parameter(description = "Format of the file, NDJSON or CSV.")
+            @RequestParam(value = "format", defaultValue = "NDJSON") FileFormat format) {
+        return exportResponse("pets", format, outputStream -> exportService.exportPets(format, outputStream));
+    }
+
+    /**
+     * Streams all visits as a file, without loading them in memory.
+     *
+     * @param format - the format of the file, NDJSON or CSV.
+     * @return - response with status code OK, whose body is written while the visits are read.
+     */
+    @Operation(summary = "Exports all Visits.", description = "Streams all Visits from database as NDJSON or CSV.", tags = {"admin"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streams the Visits."),
+            @ApiResponse(responseCode = "400", description = "Invalid format.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+    })
+    @GetMapping("/export/visits")
+    public ResponseEntity<StreamingResponseBody> exportVisits(
+            @Parameter(description = "Format of the file, NDJSON or CSV.")
+            @RequestParam(value = "format", defaultValue = "NDJSON") FileFormat format) {
+        return exportResponse("visits", format, outputStream -> exportService.exportVisits(format, outputStream));
+    }
+
+    /**
+     * Registers customers and their pets from a file, which is read while it is uploaded.
+     * Invalid rows are skipped and reported, the rest of the file is still imported.
+     *
+     * @param format      - the format of the file, NDJSON or CSV.
+     * @param inputStream - the body of the request, holding the file.
+     * @return - response with status code OK, containing the number of imported users and pets and the errors of the skipped rows.
+     */
+    @Operation(summary = "Imports Users.", description = "Registers customers and their pets in bulk from NDJSON or CSV.", tags = {"admin"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The file was imported, the skipped rows are listed with their errors.", content = @Content(schema = @Schema(implementation = ImportResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid format or a CSV file without the required header.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+    })
+    @PostMapping("/import/users")
+    public ResponseEntity<ImportResultDTO> importUsers(
+            @Parameter(description = "Format of the file, NDJSON or CSV.")
+            @RequestParam(value = "format", defaultValue = "NDJSON") FileFormat format,
+            InputStream inputStream) {
+        return new ResponseEntity<>(importService.importUsers(format, inputStream), HttpStatus.OK);
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportResponse(String fileName, FileFormat format, StreamingResponseBody body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(format.getMediaType()));
+        headers.setContentDisposition(ContentDisposition.attachment().filename(fileName + "." + format.getFileExtension()).build());
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
 }
 
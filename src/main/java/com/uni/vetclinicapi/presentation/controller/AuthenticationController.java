@@ -1,5 +1,6 @@
 package com.uni.vetclinicapi.presentation.controller;
 
+import com.uni.vetclinicapi.security.util.JwtKeyRing;
 import com.uni.vetclinicapi.service.AuthenticationService;
 import com.uni.vetclinicapi.service.dto.*;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,10 +11,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+
 /**
  * Processes requests regarding "/auth" endpoint coming to the api, and returns responses based on them.
  */
@@ -25,6 +29,8 @@ public class AuthenticationController {
 
     private final AuthenticationService authenticationService;
 
+    private final JwtKeyRing jwtKeyRing;
+
     /**
      * Tries to sign-up a given valid user given by the request body.
      *
@@ -60,5 +66,60 @@ public class AuthenticationController {
     public ResponseEntity<JwtResponseDTO> login(@Valid @RequestBody LoginRequestDTO loginRequestDTO) {
         return new ResponseEntity<>(authenticationService.login(loginRequestDTO), HttpStatus.OK);
     }
+
+    /**
+     * Returns the public keys, which verify the JWT tokens, so that other services can verify them on their own.
+     *
+     * @return - the JSON Web Key Set, empty when the tokens are signed with a shared secret.
+     */
+    @Operation(summary = "Get the token verification keys.", description = "Returns the public keys of the JWT tokens as a JSON Web Key Set.", tags = {"authentication"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully returned the keys."),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class)))
+    })
+    @GetMapping("/keys")
+    public ResponseEntity<Map<String, Object>> getVerificationKeys() {
+        return new ResponseEntity<>(jwtKeyRing.getPublicJwks(), HttpStatus.OK);
+    }
+
+    /**
+     * Exchanges a refresh token for a new JWT token and refresh token.
+     *
+     * @param refreshTokenRequestDTO - contains the refresh token, issued on login or on the last refresh.
+     * @return - new JWT token needed to authenticate the user and a new refresh token.
+     */
+    @Operation(summary = "Refresh the tokens.", description = "Allows the user to get a new JWT token with a refresh token, without logging in again.", tags = {"authentication"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully refreshed the tokens.", content = @Content(schema = @Schema(implementation = JwtResponseDTO.class))),
+            @ApiResponse(responseCode = "400", description = "The request body is not correct.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "The refresh token is invalid, expired or revoked.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class)))
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponseDTO> refresh(@Valid @RequestBody RefreshTokenRequestDTO refreshTokenRequestDTO) {
+        return new ResponseEntity<>(authenticationService.refresh(refreshTokenRequestDTO), HttpStatus.OK);
+    }
+
+    /**
+     * Logs out the currently logged user, revoking the JWT token of the request and the given refresh token.
+     *
+     * @param authorizationHeader    - the Authorization header, holding the JWT token to revoke.
+     * @param refreshTokenRequestDTO - contains the refresh token to revoke, optional.
+     * @param allSessions            - whether to revoke all tokens of the user, logging out every session.
+     * @return - response entity containing the status code NO_CONTENT.
+     */
+    @Operation(summary = "Logout of the application.", description = "Revokes the tokens of the currently logged user.", tags = {"authentication"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Successfully logged out."),
+            @ApiResponse(responseCode = "401", description = "No user is logged in.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class)))
+    })
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorizationHeader,
+                                       @Valid @RequestBody(required = false) RefreshTokenRequestDTO refreshTokenRequestDTO,
+                                       @RequestParam(defaultValue = "false") boolean allSessions) {
+        authenticationService.logout(authorizationHeader, refreshTokenRequestDTO, allSessions);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
 }
 
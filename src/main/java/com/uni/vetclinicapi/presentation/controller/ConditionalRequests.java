@@ -0,0 +1,33 @@
+package com.uni.vetclinicapi.presentation.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Answers conditional GET requests of the polled resources.
+ * The ETag has to be known before the resource is loaded, so an unchanged resource is answered with 304 Not Modified
+ * before any query runs or anything is serialized.
+ */
+public final class ConditionalRequests {
+
+    // Lets the clients keep the response, but makes them revalidate it with its ETag on every use.
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Adds the ETag and the Cache-Control header to the response and compares the ETag with the If-None-Match header of the request.
+     *
+     * @param webRequest - the current request.
+     * @param eTag       - the strong ETag of the current version of the resource.
+     * @return - true if the client already has the current version, then the status is set to 304 and the handler has to return null.
+     */
+    public static boolean isNotModified(ServletWebRequest webRequest, String eTag) {
+        if (webRequest.getResponse() != null) {
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        return webRequest.checkNotModified(eTag);
+    }
+}
@@ -0,0 +1,29 @@
+package com.uni.vetclinicapi.presentation.controller;
+
+import com.uni.vetclinicapi.service.dto.CursorPageDTO;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Builds the response headers of the keyset paginated listings.
+ * The body stays a plain list of the items, while the cursor of the next page is sent in the X-Next-Cursor header,
+ * which is missing on the last page.
+ */
+public final class CursorPageHeaders {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private CursorPageHeaders() {
+    }
+
+    /**
+     * @param page - the page returned by the service.
+     * @return - the headers, containing the cursor of the next page if there is one.
+     */
+    public static HttpHeaders of(CursorPageDTO<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            headers.add(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return headers;
+    }
+}
@@ -1,7 +1,9 @@
 package com.uni.vetclinicapi.presentation.controller;
 
 import com.uni.vetclinicapi.service.MedicationService;
+import com.uni.vetclinicapi.service.ResourceVersionService;
 import com.uni.vetclinicapi.service.dto.*;
+import com.uni.vetclinicapi.service.dto.MedicationViewDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,6 +17,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -27,6 +30,8 @@ public class MedicationController {
 
     private final MedicationService medicationService;
 
+    private final ResourceVersionService resourceVersionService;
+
     /**
      * Creates a medication.
      *
@@ -52,15 +57,20 @@ public class MedicationController {
     /**
      * Retrieves all medications from database
      *
-     * @return - response entity containing a list with all medications with status code OK.
+     * @param webRequest - the request, whose If-None-Match header is checked against the ETag of the medications.
+     * @return - response entity containing a list with all medications with status code OK, or NOT_MODIFIED if the client's version is current.
      */
     @Operation(summary = "Retrieves all medications.", description = "Retrieves all medications.", tags = {"meds"})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully fetched all medications.", content = @Content(schema = @Schema(implementation = List.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the version in the If-None-Match header."),
             @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
     })
     @GetMapping
-    public ResponseEntity<List<FullMedicationDTO>> getAllMedications() {
+    public ResponseEntity<List<MedicationViewDTO>> getAllMedications(ServletWebRequest webRequest) {
+        if (ConditionalRequests.isNotModified(webRequest, resourceVersionService.medicationsETag())) {
+            return null;
+        }
         return new ResponseEntity<>(medicationService.getAllMedications(), HttpStatus.OK);
     }
 
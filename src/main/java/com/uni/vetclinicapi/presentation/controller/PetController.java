@@ -1,9 +1,13 @@
 package com.uni.vetclinicapi.presentation.controller;
 
 import com.uni.vetclinicapi.service.PetService;
+import com.uni.vetclinicapi.service.VisitService;
 import com.uni.vetclinicapi.service.dto.ApiErrorResponseDTO;
+import com.uni.vetclinicapi.service.dto.CursorPageDTO;
 import com.uni.vetclinicapi.service.dto.FullPetDTO;
+import com.uni.vetclinicapi.service.dto.PetBatchResultDTO;
 import com.uni.vetclinicapi.service.dto.PetDTO;
+import com.uni.vetclinicapi.service.dto.PetTimelineEntryDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -32,6 +36,8 @@ public class PetController {
 
     private final PetService petService;
 
+    private final VisitService visitService;
+
     /**
      * Creates a pet.
      *
@@ -53,4 +59,50 @@ public class PetController {
             @Valid @RequestBody PetDTO petDTO) {
         return new ResponseEntity<>(petService.create(petDTO), HttpStatus.CREATED);
     }
+
+    /**
+     * Creates several pets at once.
+     *
+     * @param petDTOs - data that the created Pets must include.
+     * @return - response with status code OK, containing the result of every pet - CREATED, BAD_REQUEST if it is invalid or CONFLICT if its name is taken.
+     */
+    @Operation(summary = "Create several new Pets.", description = "Creates new Pets and persists them to database in one transaction, each Pet gets its own result.", tags = {"pets"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The result of every Pet, in the order of the request.", content = @Content(schema = @Schema(implementation = List.class))),
+            @ApiResponse(responseCode = "400", description = "Empty batch or more than \"app.petBatchMaxSize\" Pets.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class)))
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<List<PetBatchResultDTO>> createPets(
+            @Parameter(description = "Pets to create.", required = true)
+            @RequestBody List<PetDTO> petDTOs) {
+        return new ResponseEntity<>(petService.createAll(petDTOs), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves a page of the medical timeline of a pet.
+     *
+     * @param petId - the id of the pet.
+     * @param size  - number of visits on the page.
+     * @param after - cursor of the previous page, null for the first page.
+     * @return - response entity containing the visits on the page, from the latest one back, with status code OK, the cursor of the next page is in the X-Next-Cursor header.
+     */
+    @Operation(summary = "Retrieves the timeline of a Pet.", description = "Delivers the Visits of a Pet with their Vets, from the latest one back, one page at a time.", tags = {"pets"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully fetched a page of the timeline.", content = @Content(schema = @Schema(implementation = List.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page size or cursor.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Pet does not exist or isn't owned by the customer.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class)))
+    })
+    @GetMapping("/{petId}/timeline")
+    public ResponseEntity<List<PetTimelineEntryDTO>> getPetTimeline(
+            @Parameter(description = "Pet id.")
+            @PathVariable("petId") UUID petId,
+            @Parameter(description = "Number of visits on the page, at most \"app.maxPageSize\".")
+            @RequestParam(value = "size", required = false) Integer size,
+            @Parameter(description = "Cursor of the previous page, taken from its X-Next-Cursor header. Omitted for the first page.")
+            @RequestParam(value = "after", required = false) String after) {
+        CursorPageDTO<PetTimelineEntryDTO> page = visitService.getPetTimeline(petId, size, after);
+        return new ResponseEntity<>(page.getItems(), CursorPageHeaders.of(page), HttpStatus.OK);
+    }
 }
@@ -0,0 +1,79 @@
+package com.uni.vetclinicapi.presentation.controller;
+
+import com.uni.vetclinicapi.service.PetFacetService;
+import com.uni.vetclinicapi.service.SearchIndexService;
+import com.uni.vetclinicapi.service.dto.ApiErrorResponseDTO;
+import com.uni.vetclinicapi.service.dto.PetFacetPageDTO;
+import com.uni.vetclinicapi.service.dto.SearchResultDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/search")
+@RestController
+@Tag(name = "search", description = "The Search API.")
+public class SearchController {
+
+    private final SearchIndexService searchIndexService;
+
+    private final PetFacetService petFacetService;
+
+    /**
+     * Finds users and pets by the first letters of their names, for type-ahead search.
+     *
+     * @param query - the words typed so far.
+     * @param limit - the maximum number of users and of pets.
+     * @return - response entity containing the matching users and pets with status code OK.
+     */
+    @Operation(summary = "Searches Users and Pets.", description = "Finds Users by the start of their first name, last name, email or phone number and Pets by the start of their name.", tags = {"search"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully searched.", content = @Content(schema = @Schema(implementation = SearchResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid limit.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+    })
+    @GetMapping
+    public ResponseEntity<SearchResultDTO> search(
+            @Parameter(description = "The words typed so far, each of them has to start a word of a searched field.")
+            @RequestParam("q") String query,
+            @Parameter(description = "Maximum number of Users and of Pets, at most \"app.searchMaxLimit\".")
+            @RequestParam(value = "limit", required = false) Integer limit) {
+        return new ResponseEntity<>(searchIndexService.search(query, limit), HttpStatus.OK);
+    }
+
+    /**
+     * Finds the pets of a specie and breed, one page at a time, with the number of pets of every specie and breed.
+     *
+     * @param specie - the specie of the pets, any if omitted.
+     * @param breed  - the breed of the pets, any if omitted.
+     * @param size   - number of pets on the page.
+     * @param after  - cursor of the previous page, null for the first page.
+     * @return - response entity containing the page of pets and the facet counts with status code OK.
+     */
+    @Operation(summary = "Searches Pets by specie and breed.", description = "Finds a page of the Pets of a specie and breed and counts the Pets of every specie and breed.", tags = {"search"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully searched.", content = @Content(schema = @Schema(implementation = PetFacetPageDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page size or cursor.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+    })
+    @GetMapping("/pets")
+    public ResponseEntity<PetFacetPageDTO> searchPets(
+            @Parameter(description = "Specie of the Pets, any if omitted.")
+            @RequestParam(value = "specie", required = false) String specie,
+            @Parameter(description = "Breed of the Pets, any if omitted.")
+            @RequestParam(value = "breed", required = false) String breed,
+            @Parameter(description = "Number of Pets on the page, at most \"app.maxPageSize\".")
+            @RequestParam(value = "size", required = false) Integer size,
+            @Parameter(description = "Cursor of the previous page, taken from its nextCursor. Omitted for the first page.")
+            @RequestParam(value = "after", required = false) String after) {
+        return new ResponseEntity<>(petFacetService.search(specie, breed, size, after), HttpStatus.OK);
+    }
+}
@@ -1,12 +1,15 @@
 package com.uni.vetclinicapi.presentation.controller;
 
 import com.uni.vetclinicapi.service.PetService;
+import com.uni.vetclinicapi.service.ResourceVersionService;
 import com.uni.vetclinicapi.service.UserService;
 import com.uni.vetclinicapi.service.VisitService;
 import com.uni.vetclinicapi.service.dto.ApiErrorResponseDTO;
+import com.uni.vetclinicapi.service.dto.CursorPageDTO;
 import com.uni.vetclinicapi.service.dto.FullPetDTO;
-import com.uni.vetclinicapi.service.dto.FullVisitDTO;
+import com.uni.vetclinicapi.service.dto.PetViewDTO;
 import com.uni.vetclinicapi.service.dto.UserInfoDTO;
+import com.uni.vetclinicapi.service.dto.VisitViewDTO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -19,6 +22,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -35,35 +39,47 @@ public class UserController {
 
     private final VisitService visitService;
 
+    private final ResourceVersionService resourceVersionService;
+
     /**
      * Returns currently logged-in user's info.
      *
-     * @return - UserInfoDTO with status code OK(200).
+     * @param webRequest - the request, whose If-None-Match header is checked against the ETag of the user.
+     * @return - UserInfoDTO with status code OK(200), or status code NOT_MODIFIED(304) if the client's version is current.
      */
     @Operation(summary = "Get details for logged user", tags = {"users"})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully fetched details for logged user", content = @Content(schema = @Schema(implementation = UserInfoDTO.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the version in the If-None-Match header."),
             @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class)))
 
     })
     @GetMapping
-    public ResponseEntity<UserInfoDTO> getLoggedUserInfo(){
+    public ResponseEntity<UserInfoDTO> getLoggedUserInfo(ServletWebRequest webRequest){
+        if (ConditionalRequests.isNotModified(webRequest, resourceVersionService.loggedUserETag())) {
+            return null;
+        }
         return new ResponseEntity<>(userService.getLoggedUserInfo(), HttpStatus.OK);
     }
 
     /**
      * Delivers all the pets for current User.
      *
-     * @return - response with status code OK if the pets were found successfully.
+     * @param webRequest - the request, whose If-None-Match header is checked against the ETag of the pets.
+     * @return - response with status code OK if the pets were found successfully, or NOT_MODIFIED if the client's version is current.
      */
 
     @Operation(summary = "Find all Pets for User.", description = "Delivers Pets from database.", tags = {"users"})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Delivers Pets for User from database.", content = @Content(schema = @Schema(implementation = List.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the version in the If-None-Match header."),
             @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
     })
     @GetMapping("/pets")
-    public ResponseEntity<List<FullPetDTO>> getAllPetsForLoggedUser() {
+    public ResponseEntity<List<PetViewDTO>> getAllPetsForLoggedUser(ServletWebRequest webRequest) {
+        if (ConditionalRequests.isNotModified(webRequest, resourceVersionService.loggedUserPetsETag())) {
+            return null;
+        }
         return new ResponseEntity<>(petService.findAllPetsForLoggedUser(), HttpStatus.OK);
     }
 
@@ -89,13 +105,23 @@ public class UserController {
     }
 
 
+    /**
+     * Delivers all the visits made by the current User.
+     *
+     * @param webRequest - the request, whose If-None-Match header is checked against the ETag of the visits.
+     * @return - response with status code OK, or NOT_MODIFIED if the client's version is current.
+     */
     @Operation(summary = "Find all Visits for User.", description = "Delivers Visits from database.", tags = {"users"})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Delivers Pets for User from database.", content = @Content(schema = @Schema(implementation = List.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the version in the If-None-Match header."),
             @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class)))
     })
     @GetMapping("/visits")
-    public ResponseEntity<List<FullVisitDTO>> getAllVisitsForUser() {
+    public ResponseEntity<List<VisitViewDTO>> getAllVisitsForUser(ServletWebRequest webRequest) {
+        if (ConditionalRequests.isNotModified(webRequest, resourceVersionService.loggedUserVisitsETag())) {
+            return null;
+        }
         return new ResponseEntity<>(visitService.findAllVisitsForUser(),HttpStatus.OK);
     }
 
@@ -103,6 +129,7 @@ public class UserController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Updates a given pet's property", content = @Content(schema = @Schema(implementation = FullPetDTO.class))),
             @ApiResponse(responseCode = "404", description = "Pet does not exist in the database", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "409", description = "The owner already has a pet with the new name", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class)))
     })
     @PatchMapping("/pets")
@@ -128,17 +155,28 @@ public class UserController {
 
 
     /**
-     * Retrieves all users with Vet role from database
+     * Retrieves a page of the users with Vet role from database
      *
-     * @return - response entity containing a list with all users with Vet role with status code OK.
+     * @param size  - number of vets on the page.
+     * @param after - cursor of the previous page, null for the first page.
+     * @param sort  - order of the vets, either username or createdAt.
+     * @return - response entity containing a list with the users with Vet role on the page with status code OK, the cursor of the next page is in the X-Next-Cursor header.
      */
-    @Operation(summary = "Retrieves all users with Vet role.", description = "Allows the user to get a list of vets.", tags = {"users"})
+    @Operation(summary = "Retrieves all users with Vet role.", description = "Allows the user to get a list of vets, one page at a time.", tags = {"users"})
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Successfully fetched all users with role Vet.", content = @Content(schema = @Schema(implementation = List.class))),
+            @ApiResponse(responseCode = "200", description = "Successfully fetched a page of users with role Vet.", content = @Content(schema = @Schema(implementation = List.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid page size, sort or cursor.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
     })
     @GetMapping("/vets")
-    public ResponseEntity<List<UserInfoDTO>> getAllUsers() {
-        return new ResponseEntity<>(userService.getAllUsersWithRoleVet(), HttpStatus.OK);
+    public ResponseEntity<List<UserInfoDTO>> getAllUsers(
+            @Parameter(description = "Number of users on the page, at most \"app.maxPageSize\".")
+            @RequestParam(value = "size", required = false) Integer size,
+            @Parameter(description = "Cursor of the previous page, taken from its X-Next-Cursor header. Omitted for the first page.")
+            @RequestParam(value = "after", required = false) String after,
+            @Parameter(description = "Order of the users, either username or createdAt.")
+            @RequestParam(value = "sort", defaultValue = "username") String sort) {
+        CursorPageDTO<UserInfoDTO> page = userService.getAllUsersWithRoleVet(size, after, sort);
+        return new ResponseEntity<>(page.getItems(), CursorPageHeaders.of(page), HttpStatus.OK);
     }
 }
@@ -11,10 +11,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
 /**
  * Processes requests regarding "/visits" endpoint coming to the api, and returns responses based on them.
  */
@@ -48,5 +53,37 @@ public class VisitController {
         return new ResponseEntity<>(visitService.addVisit(visitDTO), HttpStatus.CREATED);
     }
 
+    /**
+     * Finds the free slots of the vets over a range of days, so a visit can be booked at a time, which is known to be free.
+     *
+     * @param from    - the first day, today if omitted.
+     * @param to      - the last day, the same as the first day if omitted.
+     * @param vetIds  - the ids of the vets, all vets if omitted.
+     * @param vetType - the type of the vets, any if omitted.
+     * @param size    - maximum number of slots.
+     * @return - response entity containing the free slots, ordered by date and time, with status code OK.
+     */
+    @Operation(summary = "Finds free slots of Vets.", description = "Finds the free slots of the Vets over a range of days, from the earliest one on.", tags = {"visits"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully found.", content = @Content(schema = @Schema(implementation = List.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid date range or size.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class))),
+            @ApiResponse(responseCode = "404", description = "Vet does not exist.", content = @Content(schema = @Schema(implementation = ApiErrorResponseDTO.class)))
+    })
+    @GetMapping("/availability")
+    public ResponseEntity<List<AvailableSlotDTO>> findAvailableSlots(
+            @Parameter(description = "First day, today if omitted.", example = "2007-12-03")
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, the first day if omitted, at most \"app.availabilityMaxDays\" after it.", example = "2007-12-09")
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Ids of the Vets, all Vets if omitted.")
+            @RequestParam(value = "vetId", required = false) List<UUID> vetIds,
+            @Parameter(description = "Type of the Vets, any if omitted.", example = "Surgeon")
+            @RequestParam(value = "vetType", required = false) String vetType,
+            @Parameter(description = "Maximum number of slots, at most \"app.maxPageSize\".")
+            @RequestParam(value = "size", required = false) Integer size) {
+        return new ResponseEntity<>(visitService.findAvailableSlots(from, to, vetIds, vetType, size), HttpStatus.OK);
+    }
+
 
 }
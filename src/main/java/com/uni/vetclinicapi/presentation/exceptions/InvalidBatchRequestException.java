@@ -0,0 +1,10 @@
+package com.uni.vetclinicapi.presentation.exceptions;
+
+/**
+ * Thrown, when a batch request is empty or holds more items than allowed.
+ */
+public class InvalidBatchRequestException extends RuntimeException {
+    public InvalidBatchRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.uni.vetclinicapi.presentation.exceptions;
+
+/**
+ * Thrown, when a date range ends before it starts, starts in the past or spans more days than allowed.
+ */
+public class InvalidDateRangeException extends RuntimeException {
+    public InvalidDateRangeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.uni.vetclinicapi.presentation.exceptions;
+
+/**
+ * Thrown, when an import file can't be read at all, like a CSV file without the required header columns.
+ */
+public class InvalidImportFileException extends RuntimeException {
+    public InvalidImportFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.uni.vetclinicapi.presentation.exceptions;
+
+/**
+ * Thrown, when a page of a listing is requested with an unknown sort, a page size out of range or a cursor, which can't be decoded.
+ */
+public class InvalidPageRequestException extends RuntimeException {
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
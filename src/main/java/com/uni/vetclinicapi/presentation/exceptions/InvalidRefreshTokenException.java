@@ -0,0 +1,10 @@
+package com.uni.vetclinicapi.presentation.exceptions;
+
+/**
+ * Thrown, when a refresh token is invalid, expired, revoked or not a refresh token at all.
+ */
+public class InvalidRefreshTokenException extends RuntimeException {
+    public InvalidRefreshTokenException(String message) {
+        super(message);
+    }
+}
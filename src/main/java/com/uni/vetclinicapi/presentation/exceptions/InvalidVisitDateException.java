@@ -1,7 +1,7 @@
 package com.uni.vetclinicapi.presentation.exceptions;
 
 /**
- * Thrown, when the visit date is taken or before the time of making the visit.
+ * Thrown, when the vet is taken at the visit date or it is before the time of making the visit.
  */
 public class InvalidVisitDateException extends RuntimeException {
     public InvalidVisitDateException(String message) {
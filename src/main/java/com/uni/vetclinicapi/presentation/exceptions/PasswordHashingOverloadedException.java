@@ -0,0 +1,17 @@
+package com.uni.vetclinicapi.presentation.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Thrown, when too many logins or registrations are waiting for password hashing and the request can't be queued.
+ */
+@Getter
+public class PasswordHashingOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
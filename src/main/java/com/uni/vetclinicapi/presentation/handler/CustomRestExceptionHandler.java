@@ -113,7 +113,7 @@ public class CustomRestExceptionHandler extends ResponseEntityExceptionHandler {
     }
 
     /**
-     * Returns exception message with status code bad request, when we try to create a visit with date and hour, which already exists in database or is before the time of creating.
+     * Returns exception message with status code bad request, when we try to create a visit, which overlaps another visit of the vet or is before the time of creating.
      *
      * @param e - the exception thrown.
      * @return - response, containing the exception message and appropriate status code.
@@ -151,6 +151,71 @@ public class CustomRestExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(new ApiErrorResponseDTO(HttpStatus.UNAUTHORIZED, exceptionMessage, List.of(e.getMessage())), HttpStatus.UNAUTHORIZED);
     }
 
+    /**
+     * Returns exception message with status code unauthorized, when a refresh token can't be exchanged for new tokens.
+     *
+     * @param e - the exception thrown.
+     * @return - response, containing the exception message and appropriate status code.
+     */
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<ApiErrorResponseDTO> handleInvalidRefreshToken(InvalidRefreshTokenException e) {
+        String exceptionMessage = e.getLocalizedMessage();
+        log.warn(exceptionMessage);
+        return new ResponseEntity<>(new ApiErrorResponseDTO(HttpStatus.UNAUTHORIZED, exceptionMessage, List.of(e.getMessage())), HttpStatus.UNAUTHORIZED);
+    }
+
+    /**
+     * Returns exception message with status code bad request, when a page is requested with an invalid sort, size or cursor.
+     *
+     * @param e - the exception thrown.
+     * @return - response, containing the exception message and appropriate status code.
+     */
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<ApiErrorResponseDTO> handleInvalidPageRequest(InvalidPageRequestException e) {
+        String exceptionMessage = e.getLocalizedMessage();
+        log.warn(exceptionMessage);
+        return new ResponseEntity<>(new ApiErrorResponseDTO(HttpStatus.BAD_REQUEST, exceptionMessage, List.of(e.getMessage())), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Returns exception message with status code bad request, when a batch request is empty or too large.
+     *
+     * @param e - the exception thrown.
+     * @return - response, containing the exception message and appropriate status code.
+     */
+    @ExceptionHandler(InvalidBatchRequestException.class)
+    public ResponseEntity<ApiErrorResponseDTO> handleInvalidBatchRequest(InvalidBatchRequestException e) {
+        String exceptionMessage = e.getLocalizedMessage();
+        log.warn(exceptionMessage);
+        return new ResponseEntity<>(new ApiErrorResponseDTO(HttpStatus.BAD_REQUEST, exceptionMessage, List.of(e.getMessage())), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Returns exception message with status code bad request, when a date range ends before it starts, starts in the past or is too long.
+     *
+     * @param e - the exception thrown.
+     * @return - response, containing the exception message and appropriate status code.
+     */
+    @ExceptionHandler(InvalidDateRangeException.class)
+    public ResponseEntity<ApiErrorResponseDTO> handleInvalidDateRange(InvalidDateRangeException e) {
+        String exceptionMessage = e.getLocalizedMessage();
+        log.warn(exceptionMessage);
+        return new ResponseEntity<>(new ApiErrorResponseDTO(HttpStatus.BAD_REQUEST, exceptionMessage, List.of(e.getMessage())), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Returns exception message with status code bad request, when an import file can't be read.
+     *
+     * @param e - the exception thrown.
+     * @return - response, containing the exception message and appropriate status code.
+     */
+    @ExceptionHandler(InvalidImportFileException.class)
+    public ResponseEntity<ApiErrorResponseDTO> handleInvalidImportFile(InvalidImportFileException e) {
+        String exceptionMessage = e.getLocalizedMessage();
+        log.warn(exceptionMessage);
+        return new ResponseEntity<>(new ApiErrorResponseDTO(HttpStatus.BAD_REQUEST, exceptionMessage, List.of(e.getMessage())), HttpStatus.BAD_REQUEST);
+    }
+
     /**
      * Returns exception message with status code conflict, when we try to create a medication with name which already exists.
      *
@@ -189,4 +254,19 @@ public class CustomRestExceptionHandler extends ResponseEntityExceptionHandler {
         log.warn(exceptionMessage);
         return new ResponseEntity<>(new ApiErrorResponseDTO(HttpStatus.CONFLICT, exceptionMessage, List.of(e.getMessage())), HttpStatus.CONFLICT);
     }
+
+    /**
+     * Returns exception message with status code service unavailable and a Retry-After header, when the password hashing queue is full.
+     *
+     * @param e - the exception thrown.
+     * @return - response, containing the exception message and appropriate status code.
+     */
+    @ExceptionHandler(PasswordHashingOverloadedException.class)
+    public ResponseEntity<ApiErrorResponseDTO> handlePasswordHashingOverloaded(PasswordHashingOverloadedException e) {
+        String exceptionMessage = e.getLocalizedMessage();
+        log.warn(exceptionMessage);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        return new ResponseEntity<>(new ApiErrorResponseDTO(HttpStatus.SERVICE_UNAVAILABLE, exceptionMessage, List.of(e.getMessage())), headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
 }
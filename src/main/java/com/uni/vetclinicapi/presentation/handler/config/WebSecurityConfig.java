@@ -1,10 +1,17 @@
 package com.uni.vetclinicapi.presentation.handler.config;
 
+import com.uni.vetclinicapi.presentation.controller.CursorPageHeaders;
 import com.uni.vetclinicapi.security.filter.JwtAuthenticationTokenFilter;
+import com.uni.vetclinicapi.security.filter.LoginRateLimitFilter;
+import com.uni.vetclinicapi.security.util.BoundedPasswordEncoder;
 import com.uni.vetclinicapi.security.util.JwtAuthenticationEntryPoint;
+import com.uni.vetclinicapi.service.PasswordHashingService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
@@ -13,8 +20,11 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -22,6 +32,8 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * This class contains the configuration for the Web Security and all of the ants and their authority roles.
@@ -47,24 +59,64 @@ public class WebSecurityConfig{
             "/api/v1/services"
     };
 
+    private static final String BCRYPT_ENCODER_ID = "bcrypt";
+
+    private static final String PBKDF2_ENCODER_ID = "pbkdf2";
+
+    private static final String ARGON2_ENCODER_ID = "argon2";
+
     private final UserDetailsService userDetailsService;
 
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
 
+    @Value("${app.passwordEncoder:bcrypt}")
+    private String passwordEncoderId;
+
+    @Value("${app.bcryptStrength:10}")
+    private int bcryptStrength;
+
+    @Value("${app.pbkdf2Iterations:310000}")
+    private int pbkdf2Iterations;
+
+    @Value("${app.argon2MemoryKb:16384}")
+    private int argon2MemoryKb;
+
+    @Value("${app.argon2Iterations:2}")
+    private int argon2Iterations;
+
     @Bean
     public JwtAuthenticationTokenFilter authenticationJwtTokenFilter() {
         return new JwtAuthenticationTokenFilter();
     }
 
     @Bean
-    public AuthenticationManager authenticationManagerBean(HttpSecurity http) throws Exception {
+    public LoginRateLimitFilter loginRateLimitFilter() {
+        return new LoginRateLimitFilter();
+    }
+
+    @Bean
+    public AuthenticationManager authenticationManagerBean(HttpSecurity http, PasswordEncoder passwordEncoder) throws Exception {
         AuthenticationManagerBuilder authenticationManagerBuilder = http.getSharedObject(AuthenticationManagerBuilder.class);
-        authenticationManagerBuilder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
+        authenticationManagerBuilder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder);
         return authenticationManagerBuilder.build();
     }
+
+    /**
+     * New passwords are hashed with the encoder selected by "app.passwordEncoder", while hashes of any of the known encoders can still be verified.
+     * Hashes without an "{id}" prefix are the plain BCrypt hashes from before and are matched with BCrypt.
+     * On a successful login the DaoAuthenticationProvider re-hashes passwords, whose encoder or cost differs from the current one.
+     * The hashing work of the encoder runs on the bounded pool of {@link PasswordHashingService}, instead of the request threads.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingService passwordHashingService) {
+        BCryptPasswordEncoder bCryptPasswordEncoder = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(BCRYPT_ENCODER_ID, bCryptPasswordEncoder);
+        encoders.put(PBKDF2_ENCODER_ID, new Pbkdf2PasswordEncoder("", 16, pbkdf2Iterations, Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+        encoders.put(ARGON2_ENCODER_ID, new Argon2PasswordEncoder(16, 32, 1, argon2MemoryKb, argon2Iterations));
+        DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder(passwordEncoderId, encoders);
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bCryptPasswordEncoder);
+        return new BoundedPasswordEncoder(delegatingPasswordEncoder, passwordHashingService);
     }
 
     @Bean
@@ -73,17 +125,25 @@ public class WebSecurityConfig{
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(httpSecuritySessionManagementConfigurer -> httpSecuritySessionManagementConfigurer.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .exceptionHandling(httpSecurityExceptionHandlingConfigurer -> httpSecurityExceptionHandlingConfigurer.authenticationEntryPoint(unauthorizedHandler))
-                .authorizeHttpRequests(authorizationManagerRequestMatcherRegistry -> authorizationManagerRequestMatcherRegistry.requestMatchers("/api/v1/auth/register","/api/v1/auth/login").permitAll()
+                // The async dispatch, which completes a streamed response, belongs to a request already authorized on its first dispatch.
+                .authorizeHttpRequests(authorizationManagerRequestMatcherRegistry -> authorizationManagerRequestMatcherRegistry.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers("/api/v1/auth/register","/api/v1/auth/login","/api/v1/auth/refresh","/api/v1/auth/keys").permitAll()
+                        .requestMatchers("/api/v1/auth/logout").authenticated()
                         .requestMatchers("/api/v1/users","/api/v1/users/**").hasAnyAuthority(CUSTOMER_AUTHORITY,ADMIN_AUTHORITY)
                         .requestMatchers("/api/v1/users/vets").hasAnyAuthority(CUSTOMER_AUTHORITY,ADMIN_AUTHORITY)
                         .requestMatchers(HttpMethod.PATCH, "/api/v1/users").hasAnyAuthority(CUSTOMER_AUTHORITY, ADMIN_AUTHORITY)
                         .requestMatchers("/api/v1/users/pets").hasAuthority(CUSTOMER_AUTHORITY)
                         .requestMatchers(HttpMethod.PATCH, "/api/v1/users/pets").hasAnyAuthority(CUSTOMER_AUTHORITY, ADMIN_AUTHORITY)
-                        .requestMatchers("/api/v1/pets").hasAuthority(CUSTOMER_AUTHORITY)
+                        .requestMatchers("/api/v1/pets", "/api/v1/pets/batch").hasAuthority(CUSTOMER_AUTHORITY)
+                        .requestMatchers(HttpMethod.GET, "/api/v1/pets/*/timeline").hasAnyAuthority(CUSTOMER_AUTHORITY, VET_AUTHORITY, ADMIN_AUTHORITY)
                         .requestMatchers("/api/v1/visits").hasAuthority(CUSTOMER_AUTHORITY)
+                        .requestMatchers(HttpMethod.GET, "/api/v1/visits/availability").hasAnyAuthority(CUSTOMER_AUTHORITY, VET_AUTHORITY, ADMIN_AUTHORITY)
                         .requestMatchers("/api/v1/meds","/api/v1/meds/**").hasAnyAuthority(ADMIN_AUTHORITY,VET_AUTHORITY)
                         .requestMatchers(HttpMethod.PATCH,"/api/v1/meds/**").hasAuthority(VET_AUTHORITY)
-                        .requestMatchers("/api/v1/admin", "/api/v1/admin/**").hasAuthority(ADMIN_AUTHORITY));
+                        .requestMatchers("/api/v1/admin", "/api/v1/admin/**").hasAuthority(ADMIN_AUTHORITY)
+                        .requestMatchers("/api/v1/search", "/api/v1/search/pets").hasAnyAuthority(ADMIN_AUTHORITY, VET_AUTHORITY)
+                        .requestMatchers("/actuator", "/actuator/**").hasAuthority(ADMIN_AUTHORITY));
+        http.addFilterBefore(loginRateLimitFilter(), UsernamePasswordAuthenticationFilter.class);
         http.addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
@@ -93,8 +153,8 @@ public class WebSecurityConfig{
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token"));
-        configuration.setExposedHeaders(Arrays.asList("x-auth-token"));
+        configuration.setAllowedHeaders(Arrays.asList("authorization", "content-type", "x-auth-token", HttpHeaders.IF_NONE_MATCH));
+        configuration.setExposedHeaders(Arrays.asList("x-auth-token", CursorPageHeaders.NEXT_CURSOR_HEADER, HttpHeaders.ETAG));
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
         return source;
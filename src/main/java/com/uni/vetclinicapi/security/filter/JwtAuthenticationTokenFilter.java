@@ -1,18 +1,22 @@
 package com.uni.vetclinicapi.security.filter;
 
+import com.uni.vetclinicapi.security.util.AuthenticatedUser;
 import com.uni.vetclinicapi.security.util.JwtUtils;
+import com.uni.vetclinicapi.security.util.VerifiedJwtClaims;
+import com.uni.vetclinicapi.service.TokenRevocationService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
@@ -20,6 +24,9 @@ import java.io.IOException;
 /**
  * This class contains the Jwt authentication token filter which checks if the incoming request has a valid JSON Web Token (JWT)
  * by verifying the JWT signature and username provided with the token.
+ * By default the principal is built straight from the token claims, without loading the user from the database.
+ * Setting "app.jwtUserRecheck" to true loads the user on every request instead, so that deleted users lose access immediately.
+ * Refresh tokens and revoked tokens don't authenticate a request.
  */
 public class JwtAuthenticationTokenFilter extends OncePerRequestFilter {
 
@@ -30,13 +37,19 @@ public class JwtAuthenticationTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Value("${app.jwtUserRecheck:false}")
+    private boolean jwtUserRecheck;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         try {
-            String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            String jwt = jwtUtils.parseBearerToken(request.getHeader(HttpHeaders.AUTHORIZATION));
+            VerifiedJwtClaims claims = jwt != null ? jwtUtils.getVerifiedClaims(jwt) : null;
+            if (claims != null && !claims.isRefreshToken() && !tokenRevocationService.isRevoked(claims)) {
+                UserDetails userDetails = loadPrincipal(claims);
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -48,13 +61,11 @@ public class JwtAuthenticationTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String parseJwt(HttpServletRequest request) {
-        String headerAuth = request.getHeader("Authorization");
-
-        if (StringUtils.hasText(headerAuth) && headerAuth.startsWith("Bearer ")) {
-            return headerAuth.substring(7);
+    private UserDetails loadPrincipal(VerifiedJwtClaims claims) {
+        // Tokens issued before the id and the roles were put in the claims can't describe the user on their own.
+        if (jwtUserRecheck || claims.getUserId() == null || claims.getAuthorities().isEmpty()) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
         }
-
-        return null;
+        return AuthenticatedUser.fromClaims(claims);
     }
 }
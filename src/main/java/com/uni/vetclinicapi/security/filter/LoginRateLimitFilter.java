@@ -0,0 +1,155 @@
+package com.uni.vetclinicapi.security.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uni.vetclinicapi.security.util.CachedBodyHttpServletRequest;
+import com.uni.vetclinicapi.service.dto.ApiErrorResponseDTO;
+import com.uni.vetclinicapi.util.TokenBucketLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * This class contains the filter, which throttles the login and registration requests before any password gets hashed.
+ * Every remote address and every username has its own token bucket, a request is rejected with 429 Too Many Requests,
+ * once either of them is empty. Buckets of idle clients are swept out periodically.
+ * The body is read to find the username only up to "app.authMaxBodyBytes", larger bodies are rejected with 413 Payload Too Large.
+ */
+@Slf4j
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LIMITED_PATHS = Set.of("/api/v1/auth/login", "/api/v1/auth/register");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.authRateLimitAddressCapacity:20}")
+    private int addressCapacity;
+
+    @Value("${app.authRateLimitAddressRefillSeconds:60}")
+    private long addressRefillSeconds;
+
+    @Value("${app.authRateLimitUsernameCapacity:5}")
+    private int usernameCapacity;
+
+    @Value("${app.authRateLimitUsernameRefillSeconds:60}")
+    private long usernameRefillSeconds;
+
+    @Value("${app.authRateLimitMaxKeys:100000}")
+    private int maxKeys;
+
+    @Value("${app.authMaxBodyBytes:4096}")
+    private int maxBodyBytes;
+
+    private TokenBucketLimiter addressLimiter;
+
+    private TokenBucketLimiter usernameLimiter;
+
+    private Counter addressRejections;
+
+    private Counter usernameRejections;
+
+    @PostConstruct
+    public void initLimiters() {
+        addressLimiter = new TokenBucketLimiter(addressCapacity, Duration.ofSeconds(addressRefillSeconds), maxKeys);
+        usernameLimiter = new TokenBucketLimiter(usernameCapacity, Duration.ofSeconds(usernameRefillSeconds), maxKeys);
+        addressRejections = rejectionCounter("address");
+        usernameRejections = rejectionCounter("username");
+    }
+
+    @Scheduled(fixedDelayString = "${app.authRateLimitSweepMs:60000}")
+    public void sweepIdleBuckets() {
+        int removed = addressLimiter.sweepIdle() + usernameLimiter.sweepIdle();
+        log.debug("Swept {} idle rate limit buckets.", removed);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !HttpMethod.POST.matches(request.getMethod()) || !LIMITED_PATHS.contains(path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String remoteAddress = request.getRemoteAddr();
+        long waitMs = addressLimiter.tryAcquire(remoteAddress);
+        if (waitMs > 0) {
+            addressRejections.increment();
+            log.warn("Throttled authentication request from address : {}.", remoteAddress);
+            reject(response, waitMs);
+            return;
+        }
+        CachedBodyHttpServletRequest cachedBodyRequest;
+        try {
+            cachedBodyRequest = new CachedBodyHttpServletRequest(request, maxBodyBytes);
+        } catch (CachedBodyHttpServletRequest.BodyTooLargeException e) {
+            log.warn("Rejected authentication request from address : {}, with a body larger than {} bytes.", remoteAddress, maxBodyBytes);
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage());
+            return;
+        }
+        String username = parseUsername(cachedBodyRequest.getBody());
+        if (username != null) {
+            waitMs = usernameLimiter.tryAcquire(username.toLowerCase(Locale.ROOT));
+            if (waitMs > 0) {
+                usernameRejections.increment();
+                log.warn("Throttled authentication request for username : {}.", username);
+                reject(response, waitMs);
+                return;
+            }
+        }
+        filterChain.doFilter(cachedBodyRequest, response);
+    }
+
+    private String parseUsername(byte[] body) {
+        if (body.length == 0) {
+            return null;
+        }
+        try {
+            JsonNode username = objectMapper.readTree(body).path("username");
+            return username.isTextual() ? username.asText() : null;
+        } catch (IOException e) {
+            // Malformed bodies are rejected by the controller validation.
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitMs) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((waitMs + 999) / 1000));
+        writeError(response, HttpStatus.TOO_MANY_REQUESTS, "Too many authentication attempts, please try again later!");
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ApiErrorResponseDTO(status, message, List.of(message)));
+    }
+
+    private Counter rejectionCounter(String key) {
+        return Counter.builder("auth.ratelimit.rejected")
+                .description("Login and registration requests rejected by the rate limiter.")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,72 @@
+package com.uni.vetclinicapi.security.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Lightweight principal, built straight from the claims of a verified JSON Web Token.
+ * Used instead of the User entity, so that authenticating a request doesn't need a trip to the database.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class AuthenticatedUser implements UserDetails {
+
+    private final UUID id;
+
+    private final String username;
+
+    private final Set<GrantedAuthority> authorities;
+
+    /**
+     * Creates a principal from already verified token claims.
+     *
+     * @param claims - the verified claims, which must contain the user id.
+     * @return - the principal of the token's owner.
+     */
+    public static AuthenticatedUser fromClaims(VerifiedJwtClaims claims) {
+        Set<GrantedAuthority> authorities = claims.getAuthorities().stream()
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toUnmodifiableSet());
+        return new AuthenticatedUser(claims.getUserId(), claims.getSubject(), authorities);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
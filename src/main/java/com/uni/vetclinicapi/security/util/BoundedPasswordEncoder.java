@@ -0,0 +1,47 @@
+package com.uni.vetclinicapi.security.util;
+
+import com.uni.vetclinicapi.service.PasswordHashingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Password encoder, which hands the hashing and the verification of passwords over to {@link PasswordHashingService}.
+ * Everything around them, like loading the user during login, stays on the calling thread.
+ */
+@RequiredArgsConstructor
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final PasswordHashingService passwordHashingService;
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return passwordHashingService.encode(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Hashes the passwords in parallel on the hashing pool.
+     *
+     * @param rawPasswords - the passwords to hash.
+     * @return - the encoded passwords, in the order of the raw ones.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        return passwordHashingService.encodeAll(rawPasswords.stream()
+                .<Supplier<String>>map(rawPassword -> () -> delegate.encode(rawPassword))
+                .toList());
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return passwordHashingService.verify(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,129 @@
+package com.uni.vetclinicapi.security.util;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import lombok.Getter;
+import org.springframework.util.StreamUtils;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request wrapper, which reads the whole body up front, so that a filter can inspect it and the controller can still read it afterwards.
+ * The body is read only up to a limit, so a large body can't fill the memory before the request is authenticated.
+ */
+public class CachedBodyHttpServletRequest extends HttpServletRequestWrapper {
+
+    @Getter
+    private final byte[] body;
+
+    /**
+     * @param request      - the wrapped request.
+     * @param maxBodyBytes - the largest accepted body.
+     * @throws BodyTooLargeException - if the declared or the actual length of the body is over the limit.
+     * @throws IOException           - if the body can't be read.
+     */
+    public CachedBodyHttpServletRequest(HttpServletRequest request, int maxBodyBytes) throws IOException {
+        super(request);
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            throw new BodyTooLargeException(maxBodyBytes);
+        }
+        // The declared length may be missing or wrong, so one byte over the limit is read to find out that the body is too large.
+        byte[] readBody = StreamUtils.copyToByteArray(new BoundedInputStream(request.getInputStream(), maxBodyBytes + 1L));
+        if (readBody.length > maxBodyBytes) {
+            throw new BodyTooLargeException(maxBodyBytes);
+        }
+        this.body = readBody;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+
+            @Override
+            public boolean isFinished() {
+                return inputStream.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            // The whole body is already in memory, so it is available and read at once.
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                try {
+                    readListener.onDataAvailable();
+                    readListener.onAllDataRead();
+                } catch (IOException e) {
+                    readListener.onError(e);
+                }
+            }
+
+            @Override
+            public int read() {
+                return inputStream.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return inputStream.read(b, off, len);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        Charset charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+        return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+    }
+
+    /**
+     * Thrown, when the body of a request is larger than the limit of the wrapper.
+     */
+    public static class BodyTooLargeException extends IOException {
+        public BodyTooLargeException(int maxBodyBytes) {
+            super(String.format("Request body is larger than %d bytes!", maxBodyBytes));
+        }
+    }
+
+    // Ends the stream after the given number of bytes.
+    private static class BoundedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int next = super.read();
+            if (next != -1) {
+                remaining--;
+            }
+            return next;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+    }
+}
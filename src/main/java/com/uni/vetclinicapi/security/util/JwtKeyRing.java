@@ -0,0 +1,201 @@
+package com.uni.vetclinicapi.security.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.impl.TextCodec;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.*;
+
+/**
+ * Holds the key, which signs new JSON Web Tokens, and all keys, which are still accepted when verifying a token.
+ * Tokens name their key in the "kid" header, so a new key can be introduced while the tokens signed with the old one are still valid.
+ * The keys are parsed once on start up, verifying a token only looks its key up.
+ * With an asymmetric algorithm (RS256, PS256, ES256 and their longer variants) only the public keys are needed for verification,
+ * and they are published as a JSON Web Key Set, so that other services can verify the tokens without a shared secret.
+ * The HMAC secret "app.jwtSecret" is kept as a fallback for tokens without a "kid", which were issued before the keys were introduced.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class JwtKeyRing extends SigningKeyResolverAdapter {
+
+    private final ResourceLoader resourceLoader;
+
+    @Value("${app.jwtSecret}")
+    private String jwtSecret;
+
+    @Getter
+    @Value("${app.jwtSigningAlgorithm:HS512}")
+    private SignatureAlgorithm signingAlgorithm;
+
+    @Getter
+    @Value("${app.jwtSigningKeyId:default}")
+    private String signingKeyId;
+
+    @Value("${app.jwtSigningKeyLocation:}")
+    private String signingKeyLocation;
+
+    @Value("${app.jwtVerificationKeys:}")
+    private String verificationKeyLocations;
+
+    @Value("${app.jwtAcceptLegacyTokens:true}")
+    private boolean acceptLegacyTokens;
+
+    @Getter
+    private Key signingKey;
+
+    private final Map<String, VerificationKey> verificationKeys = new HashMap<>();
+
+    private VerificationKey legacyVerificationKey;
+
+    @PostConstruct
+    public void loadKeys() {
+        SecretKeySpec secretKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+        if (acceptLegacyTokens) {
+            legacyVerificationKey = new VerificationKey(SignatureAlgorithm.HS512, secretKey);
+        }
+        if (signingAlgorithm.isHmac()) {
+            signingKey = new SecretKeySpec(secretKey.getEncoded(), signingAlgorithm.getJcaName());
+            verificationKeys.put(signingKeyId, new VerificationKey(signingAlgorithm, signingKey));
+        } else {
+            if (!StringUtils.hasText(signingKeyLocation)) {
+                throw new IllegalStateException(String.format("A private key location is required for signing algorithm %s!", signingAlgorithm));
+            }
+            signingKey = readPrivateKey(signingKeyLocation);
+        }
+        for (String entry : StringUtils.commaDelimitedListToStringArray(verificationKeyLocations)) {
+            String[] keyIdAndLocation = entry.trim().split("=", 2);
+            if (keyIdAndLocation.length != 2) {
+                throw new IllegalStateException(String.format("Verification key %s is not in the form keyId=location!", entry));
+            }
+            verificationKeys.put(keyIdAndLocation[0], new VerificationKey(signingAlgorithm, readPublicKey(keyIdAndLocation[1])));
+        }
+        if (!verificationKeys.containsKey(signingKeyId)) {
+            throw new IllegalStateException(String.format("The public key of the signing key %s must be one of the verification keys!", signingKeyId));
+        }
+        log.info("Signing tokens with {} key : {}, accepting keys : {}.", signingAlgorithm, signingKeyId, verificationKeys.keySet());
+    }
+
+    /**
+     * Picks the verification key named by the "kid" header and makes sure the token was signed with the algorithm of that key,
+     * so that a token can't pass a public key off as an HMAC secret.
+     */
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String keyId = header.getKeyId();
+        VerificationKey verificationKey = keyId != null ? verificationKeys.get(keyId) : legacyVerificationKey;
+        if (verificationKey == null) {
+            throw new SignatureException(String.format("Unknown signing key : %s", keyId));
+        }
+        if (!verificationKey.algorithm().getValue().equals(header.getAlgorithm())) {
+            throw new SignatureException(String.format("Signing key : %s doesn't accept algorithm %s", keyId, header.getAlgorithm()));
+        }
+        return verificationKey.key();
+    }
+
+    /**
+     * Returns the public verification keys as JSON Web Keys. Empty when the tokens are signed with an HMAC secret.
+     *
+     * @return - the JSON Web Key Set, with the keys under "keys".
+     */
+    public Map<String, Object> getPublicJwks() {
+        List<Map<String, Object>> keys = new ArrayList<>();
+        verificationKeys.forEach((keyId, verificationKey) -> {
+            Map<String, Object> jwk = new LinkedHashMap<>();
+            jwk.put("kid", keyId);
+            jwk.put("use", "sig");
+            jwk.put("alg", verificationKey.algorithm().getValue());
+            if (verificationKey.key() instanceof RSAPublicKey rsaKey) {
+                jwk.put("kty", "RSA");
+                jwk.put("n", base64Url(rsaKey.getModulus(), 0));
+                jwk.put("e", base64Url(rsaKey.getPublicExponent(), 0));
+                keys.add(jwk);
+            } else if (verificationKey.key() instanceof ECPublicKey ecKey) {
+                int fieldBytes = (ecKey.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+                jwk.put("kty", "EC");
+                jwk.put("crv", "P-" + ecKey.getParams().getCurve().getField().getFieldSize());
+                jwk.put("x", base64Url(ecKey.getW().getAffineX(), fieldBytes));
+                jwk.put("y", base64Url(ecKey.getW().getAffineY(), fieldBytes));
+                keys.add(jwk);
+            }
+        });
+        return Map.of("keys", keys);
+    }
+
+    private PrivateKey readPrivateKey(String location) {
+        try {
+            return keyFactory().generatePrivate(new PKCS8EncodedKeySpec(readPem(location)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(String.format("Private key at %s is not a PKCS#8 %s key!", location, signingAlgorithm.getFamilyName()), e);
+        }
+    }
+
+    private PublicKey readPublicKey(String location) {
+        try {
+            return keyFactory().generatePublic(new X509EncodedKeySpec(readPem(location)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(String.format("Public key at %s is not an X.509 %s key!", location, signingAlgorithm.getFamilyName()), e);
+        }
+    }
+
+    private KeyFactory keyFactory() throws GeneralSecurityException {
+        if (signingAlgorithm.isRsa()) {
+            return KeyFactory.getInstance("RSA");
+        }
+        if (signingAlgorithm.isEllipticCurve()) {
+            return KeyFactory.getInstance("EC");
+        }
+        throw new IllegalStateException(String.format("Key files aren't supported for signing algorithm %s!", signingAlgorithm));
+    }
+
+    private byte[] readPem(String location) {
+        Resource resource = resourceLoader.getResource(location.trim());
+        try {
+            String pem = StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.US_ASCII);
+            return Base64.getDecoder().decode(pem.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", ""));
+        } catch (IOException e) {
+            throw new IllegalStateException(String.format("Key at %s can't be read!", location), e);
+        }
+    }
+
+    private static String base64Url(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        int start = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        byte[] unsigned = Arrays.copyOfRange(bytes, start, bytes.length);
+        if (unsigned.length < length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(unsigned, 0, padded, length - unsigned.length, unsigned.length);
+            unsigned = padded;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(unsigned);
+    }
+
+    private record VerificationKey(SignatureAlgorithm algorithm, Key key) {
+    }
+}
@@ -1,47 +1,178 @@
 package com.uni.vetclinicapi.security.util;
 
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.util.ExpiringCache;
+import com.uni.vetclinicapi.util.ExpiringCacheMetrics;
 import io.jsonwebtoken.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
-import java.util.Date;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
 
 /**
  * This class contains the required methods for generating/validating JSON Web Tokens and the method used for extraction of username data from the token.
+ * Besides the username, the tokens carry the id and the authorities of the user, so that requests can be authenticated without loading the user.
+ * Tokens which were already verified are cached by their hash until they expire, so repeated requests with the same token skip the signature check.
+ * Next to the short-lived access tokens, long-lived refresh tokens are issued, which can only be exchanged for new tokens.
+ * Every token has a unique id and the token version of its owner, so that it can be revoked.
+ * Tokens are signed with the current key of {@link JwtKeyRing} and name it in their "kid" header,
+ * they are verified by a single parser, which is built on start up and looks the key up in the key ring.
  */
 @Slf4j
 @Component
 public class JwtUtils {
 
-    @Value("${app.jwtSecret}")
-    private String jwtSecret;
+    private static final String AUTHORITIES_CLAIM = "roles";
+
+    private static final String USER_ID_CLAIM = "uid";
+
+    private static final String TOKEN_TYPE_CLAIM = "typ";
+
+    private static final String TOKEN_VERSION_CLAIM = "ver";
+
+    public static final String ACCESS_TOKEN_TYPE = "access";
+
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+
+    private static final String BEARER_PREFIX = "Bearer ";
 
     @Value("${app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    @Value("${app.jwtRefreshExpirationMs:1209600000}")
+    private long jwtRefreshExpirationMs;
+
+    @Value("${app.jwtCacheMaxSize:10000}")
+    private int jwtCacheMaxSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtKeyRing jwtKeyRing;
+
+    private ExpiringCache<String, VerifiedJwtClaims> verifiedTokens;
+
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void initVerifiedTokenCache() {
+        verifiedTokens = new ExpiringCache<>(jwtCacheMaxSize);
+        ExpiringCacheMetrics.monitor(verifiedTokens, "verifiedTokens", meterRegistry);
+        jwtParser = Jwts.parser().setSigningKeyResolver(jwtKeyRing);
+    }
+
     public String generateJwtToken(Authentication authentication) {
+        return generateAccessToken((UserDetails) authentication.getPrincipal());
+    }
 
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+    /**
+     * Issues a short-lived access token, which carries everything needed to authenticate a request.
+     *
+     * @param userPrincipal - the owner of the token.
+     * @return - the signed access token.
+     */
+    public String generateAccessToken(UserDetails userPrincipal) {
+        List<String> authorities = userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        return buildToken(userPrincipal, ACCESS_TOKEN_TYPE, jwtExpirationMs)
+                .claim(AUTHORITIES_CLAIM, authorities)
+                .compact();
+    }
 
-        return Jwts.builder()
+    /**
+     * Issues a long-lived refresh token, which can only be exchanged for a new pair of tokens.
+     *
+     * @param user - the owner of the token.
+     * @return - the signed refresh token.
+     */
+    public String generateRefreshToken(User user) {
+        return buildToken(user, REFRESH_TOKEN_TYPE, jwtRefreshExpirationMs).compact();
+    }
+
+    private JwtBuilder buildToken(UserDetails userPrincipal, String tokenType, long expirationMs) {
+        Date issuedAt = new Date();
+        JwtBuilder builder = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, jwtKeyRing.getSigningKeyId())
+                .setId(UUID.randomUUID().toString())
                 .setSubject(userPrincipal.getUsername())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(SignatureAlgorithm.HS512, jwtSecret)
-                .compact();
+                .claim(TOKEN_TYPE_CLAIM, tokenType);
+        if (userPrincipal instanceof User user) {
+            builder.claim(USER_ID_CLAIM, user.getId().toString())
+                    .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion());
+        }
+        return builder
+                .setIssuedAt(issuedAt)
+                .setExpiration(new Date(issuedAt.getTime() + expirationMs))
+                .signWith(jwtKeyRing.getSigningAlgorithm(), jwtKeyRing.getSigningKey());
+    }
+
+    /**
+     * Verifies the token and returns its claims. The signature is checked only the first time a token is seen,
+     * afterwards the claims are served from the cache until the token expires.
+     *
+     * @param authToken - the JWT to verify.
+     * @return - the verified claims, or null if the token is invalid or expired.
+     */
+    public VerifiedJwtClaims getVerifiedClaims(String authToken) {
+        if (authToken == null || authToken.isBlank()) {
+            log.error("JWT claims string is empty.");
+            return null;
+        }
+        String tokenHash = hash(authToken);
+        VerifiedJwtClaims cachedClaims = verifiedTokens.get(tokenHash);
+        if (cachedClaims != null) {
+            return cachedClaims;
+        }
+        VerifiedJwtClaims claims = parseJwtToken(authToken);
+        if (claims != null && claims.getExpiration() != null) {
+            verifiedTokens.put(tokenHash, claims, claims.getExpiration().getTime());
+        }
+        return claims;
+    }
+
+    /**
+     * Extracts the token from the value of an Authorization header.
+     *
+     * @param authorizationHeader - the header value, like "Bearer token".
+     * @return - the token, or null if the header doesn't hold a bearer token.
+     */
+    public String parseBearerToken(String authorizationHeader) {
+        if (StringUtils.hasText(authorizationHeader) && authorizationHeader.startsWith(BEARER_PREFIX)) {
+            return authorizationHeader.substring(BEARER_PREFIX.length());
+        }
+        return null;
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+        VerifiedJwtClaims claims = getVerifiedClaims(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
     public boolean validateJwtToken(String authToken) {
+        return getVerifiedClaims(authToken) != null;
+    }
+
+    private VerifiedJwtClaims parseJwtToken(String authToken) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-            return true;
+            Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
+            Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+            return new VerifiedJwtClaims(claims.getSubject(), extractUserId(claims), claims.getId(), claims.get(TOKEN_TYPE_CLAIM, String.class),
+                    tokenVersion != null ? tokenVersion : 0, claims.getExpiration(), extractAuthorities(claims));
+        } catch (SignatureException e) {
+            log.error("Invalid JWT signature: {}", e.getMessage());
         } catch (MalformedJwtException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -51,6 +182,30 @@ public class JwtUtils {
         } catch (IllegalArgumentException e) {
             log.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return null;
+    }
+
+    private UUID extractUserId(Claims claims) {
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        return userId != null ? UUID.fromString(userId) : null;
+    }
+
+    private Set<String> extractAuthorities(Claims claims) {
+        Object authorities = claims.get(AUTHORITIES_CLAIM);
+        if (!(authorities instanceof Collection<?> values)) {
+            return Set.of();
+        }
+        Set<String> result = new HashSet<>();
+        values.forEach(value -> result.add(String.valueOf(value)));
+        return Collections.unmodifiableSet(result);
+    }
+
+    private String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM!", e);
+        }
     }
 }
@@ -0,0 +1,48 @@
+package com.uni.vetclinicapi.security.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Holds the claims of a JSON Web Token, whose signature and expiration have already been verified.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class VerifiedJwtClaims {
+
+    private final String subject;
+
+    /**
+     * Id of the token's owner. Null for tokens issued before the id was written as a claim.
+     */
+    private final UUID userId;
+
+    /**
+     * Unique id (jti) of the token. Null for tokens issued before the id was written as a claim.
+     */
+    private final String tokenId;
+
+    /**
+     * Either "access" or "refresh". Null for tokens issued before refresh tokens, those are access tokens.
+     */
+    private final String tokenType;
+
+    /**
+     * Token version of the owner at the time the token was issued, 0 for tokens without it.
+     */
+    private final int tokenVersion;
+
+    private final Date expiration;
+
+    private final Set<String> authorities;
+
+    public boolean isRefreshToken() {
+        return JwtUtils.REFRESH_TOKEN_TYPE.equals(tokenType);
+    }
+}
@@ -3,20 +3,24 @@ package com.uni.vetclinicapi.service;
 import com.uni.vetclinicapi.persistance.entity.Role;
 import com.uni.vetclinicapi.persistance.entity.User;
 import com.uni.vetclinicapi.persistance.repository.UserRepository;
+import com.uni.vetclinicapi.presentation.exceptions.InvalidRefreshTokenException;
 import com.uni.vetclinicapi.presentation.exceptions.UsernameAlreadyExistsException;
 import com.uni.vetclinicapi.security.util.JwtUtils;
+import com.uni.vetclinicapi.security.util.VerifiedJwtClaims;
 import com.uni.vetclinicapi.service.dto.JwtResponseDTO;
 import com.uni.vetclinicapi.service.dto.LoginRequestDTO;
+import com.uni.vetclinicapi.service.dto.RefreshTokenRequestDTO;
 import com.uni.vetclinicapi.service.dto.RegisterRequestDTO;
 import com.uni.vetclinicapi.service.dto.RegisterResponseDTO;
+import com.uni.vetclinicapi.service.mapper.UserMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -24,7 +28,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
- * This service takes care of the authentication of a user, registration and login operations.
+ * This service takes care of the authentication of a user, registration, login, token refresh and logout operations.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -41,7 +45,17 @@ public class AuthenticationService {
 
     private final JwtUtils jwtUtils;
 
-    private final ModelMapper modelMapper;
+    private final UserMapper userMapper;
+
+    private final LoggedUserService loggedUserService;
+
+    private final UserService userService;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final VetDirectoryService vetDirectoryService;
+
+    private final SearchIndexService searchIndexService;
 
     /**
      * This method holds the registration process for a user.
@@ -57,8 +71,7 @@ public class AuthenticationService {
                 });
         Role role = roleService.getUserRole(Role.RoleType.CUSTOMER);
         try {
-            User loggedUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-            if (loggedUser.getAuthorities().contains(Role.RoleType.ADMIN)) {
+            if (loggedUserService.hasAuthority(Role.RoleType.ADMIN)) {
                 role = roleService.getUserRole(Role.RoleType.valueOf(createUserDto.getAuthority()));
 
             }
@@ -75,15 +88,18 @@ public class AuthenticationService {
                 null,
                 Set.of(role));
         userRepository.save(user);
+        vetDirectoryService.invalidateIfVet(user);
+        searchIndexService.indexUser(user);
         log.info("User with details : username: {}, email: {}, was successfully registered and saved!", username, createUserDto.getEmail());
-        return modelMapper.map(user, RegisterResponseDTO.class);
+        return userMapper.toRegisterResponseDTO(user);
     }
 
     /**
      * This method holds the login process for a user.
+     * If the stored password hash was made with an outdated encoder or cost, the authentication manager re-hashes it once the password is verified.
      *
      * @param loginRequestDTO - contains the information for a user need for login process.
-     * @return - JWT Token that's used for authentication.
+     * @return - JWT Token that's used for authentication and the refresh token, which is exchanged for new tokens.
      */
     public JwtResponseDTO login(LoginRequestDTO loginRequestDTO) {
         Authentication authentication = authenticationManager.authenticate(
@@ -91,11 +107,71 @@ public class AuthenticationService {
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
         String jwt = jwtUtils.generateJwtToken(authentication);
+        String refreshToken = jwtUtils.generateRefreshToken((User) authentication.getPrincipal());
 
         Set<String> role = authentication.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
 
         log.info("User with username : {}, has been successfully authenticated and jwt token was delivered!", loginRequestDTO.getUsername());
-        return new JwtResponseDTO(jwt, role.iterator().next());
+        return new JwtResponseDTO(jwt, role.iterator().next(), refreshToken);
+    }
+
+    /**
+     * Exchanges a refresh token for a new JWT token and a new refresh token, without checking the password again.
+     * The used refresh token is revoked, so each refresh token can be exchanged only once.
+     *
+     * @param refreshTokenRequestDTO - contains the refresh token, issued on login or on the last refresh.
+     * @return - new JWT Token that's used for authentication and the new refresh token.
+     */
+    public JwtResponseDTO refresh(RefreshTokenRequestDTO refreshTokenRequestDTO) {
+        VerifiedJwtClaims claims = jwtUtils.getVerifiedClaims(refreshTokenRequestDTO.getRefreshToken());
+        if (claims == null || !claims.isRefreshToken() || tokenRevocationService.isRevoked(claims)) {
+            log.warn("Attempted to refresh tokens with an invalid, expired or revoked refresh token.");
+            throw new InvalidRefreshTokenException("The refresh token is invalid, expired or revoked!");
+        }
+        User user;
+        try {
+            user = userService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            log.warn("Attempted to refresh tokens of user with username : {}, who doesn't exist anymore.", claims.getSubject());
+            throw new InvalidRefreshTokenException("The refresh token is invalid, expired or revoked!");
+        }
+        if (!user.getId().equals(claims.getUserId()) || claims.getTokenVersion() < user.getTokenVersion() || !tokenRevocationService.revokeToken(claims)) {
+            log.warn("Attempted to refresh tokens of user with username : {}, with a revoked refresh token.", claims.getSubject());
+            throw new InvalidRefreshTokenException("The refresh token is invalid, expired or revoked!");
+        }
+
+        Set<String> role = user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
+
+        log.info("Tokens of user with username : {}, were refreshed!", user.getUsername());
+        return new JwtResponseDTO(jwtUtils.generateAccessToken(user), role.iterator().next(), jwtUtils.generateRefreshToken(user));
+    }
+
+    /**
+     * Logs out the currently logged user, by revoking the JWT token of the request and the given refresh token.
+     *
+     * @param authorizationHeader    - the Authorization header of the request, which holds the JWT token.
+     * @param refreshTokenRequestDTO - contains the refresh token to revoke, may be null.
+     * @param allSessions            - whether to revoke all tokens, which were ever issued to the user.
+     */
+    public void logout(String authorizationHeader, RefreshTokenRequestDTO refreshTokenRequestDTO, boolean allSessions) {
+        String username = loggedUserService.getLoggedUsername();
+        VerifiedJwtClaims accessClaims = jwtUtils.getVerifiedClaims(jwtUtils.parseBearerToken(authorizationHeader));
+        if (accessClaims != null) {
+            tokenRevocationService.revokeToken(accessClaims);
+        }
+        if (refreshTokenRequestDTO != null) {
+            VerifiedJwtClaims refreshClaims = jwtUtils.getVerifiedClaims(refreshTokenRequestDTO.getRefreshToken());
+            if (refreshClaims != null && refreshClaims.isRefreshToken() && username.equals(refreshClaims.getSubject())) {
+                tokenRevocationService.revokeToken(refreshClaims);
+            }
+        }
+        if (allSessions) {
+            User user = loggedUserService.getLoggedUser();
+            tokenRevocationService.revokeAllTokens(user);
+            userService.evictPrincipal(user.getUsername());
+        }
+        log.info("User with username : {}, has logged out{}.", username, allSessions ? " of all sessions" : "");
     }
 }
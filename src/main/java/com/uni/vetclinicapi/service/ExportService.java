@@ -0,0 +1,175 @@
+package com.uni.vetclinicapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uni.vetclinicapi.persistance.projection.UserView;
+import com.uni.vetclinicapi.persistance.repository.PetRepository;
+import com.uni.vetclinicapi.persistance.repository.UserRepository;
+import com.uni.vetclinicapi.persistance.repository.VisitRepository;
+import com.uni.vetclinicapi.service.dto.PetViewDTO;
+import com.uni.vetclinicapi.service.dto.VisitViewDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes all users, pets or visits to an output stream as NDJSON or CSV.
+ * The rows are read through a forward-only cursor, which fetches a fixed number of rows at a time, as read-only projections,
+ * which the persistence context doesn't keep, and each row is written as soon as it is read.
+ * So the memory used by an export doesn't depend on the size of the table.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class ExportService {
+
+    private static final List<ExportColumn<UserView>> USER_COLUMNS = List.of(
+            new ExportColumn<>("id", UserView::getId),
+            new ExportColumn<>("username", UserView::getUsername),
+            new ExportColumn<>("email", UserView::getEmail),
+            new ExportColumn<>("firstName", UserView::getFirstName),
+            new ExportColumn<>("lastName", UserView::getLastName),
+            new ExportColumn<>("phoneNumber", UserView::getPhoneNumber),
+            new ExportColumn<>("vetType", UserView::getVetType),
+            new ExportColumn<>("createdAt", UserView::getCreatedAt));
+
+    private static final List<ExportColumn<PetViewDTO>> PET_COLUMNS = List.of(
+            new ExportColumn<>("id", PetViewDTO::getId),
+            new ExportColumn<>("name", PetViewDTO::getName),
+            new ExportColumn<>("specie", PetViewDTO::getSpecie),
+            new ExportColumn<>("breed", PetViewDTO::getBreed),
+            new ExportColumn<>("ownerId", PetViewDTO::getOwnerId));
+
+    private static final List<ExportColumn<VisitViewDTO>> VISIT_COLUMNS = List.of(
+            new ExportColumn<>("id", VisitViewDTO::getId),
+            new ExportColumn<>("date", VisitViewDTO::getDate),
+            new ExportColumn<>("time", VisitViewDTO::getTime),
+            new ExportColumn<>("approved", VisitViewDTO::isApproved),
+            new ExportColumn<>("description", VisitViewDTO::getDescription),
+            new ExportColumn<>("userId", VisitViewDTO::getUserId),
+            new ExportColumn<>("petId", VisitViewDTO::getPetId),
+            new ExportColumn<>("vetId", VisitViewDTO::getVetId));
+
+    private final UserRepository userRepository;
+
+    private final PetRepository petRepository;
+
+    private final VisitRepository visitRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Writes all users, without their passwords and roles.
+     *
+     * @param format       - the format of the export.
+     * @param outputStream - the stream to write to, it is flushed, but not closed.
+     */
+    public void exportUsers(FileFormat format, OutputStream outputStream) {
+        export("users", format, outputStream, userRepository::streamAllViews, USER_COLUMNS);
+    }
+
+    /**
+     * Writes all pets with the id of their owner.
+     *
+     * @param format       - the format of the export.
+     * @param outputStream - the stream to write to, it is flushed, but not closed.
+     */
+    public void exportPets(FileFormat format, OutputStream outputStream) {
+        export("pets", format, outputStream, petRepository::streamAllViews, PET_COLUMNS);
+    }
+
+    /**
+     * Writes all visits with the ids of the user, the pet and the vet.
+     *
+     * @param format       - the format of the export.
+     * @param outputStream - the stream to write to, it is flushed, but not closed.
+     */
+    public void exportVisits(FileFormat format, OutputStream outputStream) {
+        export("visits", format, outputStream, visitRepository::streamAllViews, VISIT_COLUMNS);
+    }
+
+    private <T> void export(String name, FileFormat format, OutputStream outputStream, Supplier<Stream<T>> rows, List<ExportColumn<T>> columns) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        long startMs = System.currentTimeMillis();
+        // The cursor of the stream is only open as long as the transaction.
+        Long exportedRows = transactionTemplate.execute(status -> {
+            try (Stream<T> stream = rows.get()) {
+                return format == FileFormat.CSV
+                        ? writeCsv(stream.iterator(), columns, outputStream)
+                        : writeNdjson(stream.iterator(), columns, outputStream);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.info("Exported {} {} as {} in {} ms.", exportedRows, name, format, System.currentTimeMillis() - startMs);
+    }
+
+    private <T> long writeNdjson(Iterator<T> rows, List<ExportColumn<T>> columns, OutputStream outputStream) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                T row = rows.next();
+                generator.writeStartObject();
+                for (ExportColumn<T> column : columns) {
+                    generator.writeObjectField(column.name(), column.value().apply(row));
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private <T> long writeCsv(Iterator<T> rows, List<ExportColumn<T>> columns, OutputStream outputStream) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        for (int i = 0; i < columns.size(); i++) {
+            writer.write(i == 0 ? "" : ",");
+            writer.write(columns.get(i).name());
+        }
+        writer.write("\r\n");
+        while (rows.hasNext()) {
+            T row = rows.next();
+            for (int i = 0; i < columns.size(); i++) {
+                writer.write(i == 0 ? "" : ",");
+                Object value = columns.get(i).value().apply(row);
+                writer.write(value == null ? "" : escapeCsv(value.toString()));
+            }
+            writer.write("\r\n");
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static String escapeCsv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private record ExportColumn<T>(String name, Function<T, Object> value) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.uni.vetclinicapi.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The formats, in which the admin exports are written and the admin imports are read.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum FileFormat {
+
+    // One JSON object per line.
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    // RFC 4180 comma separated values, with a header line.
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+
+    private final String fileExtension;
+}
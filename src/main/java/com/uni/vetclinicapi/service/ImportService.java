@@ -0,0 +1,352 @@
+package com.uni.vetclinicapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uni.vetclinicapi.persistance.entity.Pet;
+import com.uni.vetclinicapi.persistance.entity.Role;
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.persistance.repository.PetRepository;
+import com.uni.vetclinicapi.persistance.repository.UserRepository;
+import com.uni.vetclinicapi.presentation.exceptions.InvalidImportFileException;
+import com.uni.vetclinicapi.security.util.BoundedPasswordEncoder;
+import com.uni.vetclinicapi.service.dto.ImportErrorDTO;
+import com.uni.vetclinicapi.service.dto.ImportResultDTO;
+import com.uni.vetclinicapi.service.dto.ImportUserDTO;
+import com.uni.vetclinicapi.service.dto.PetDTO;
+import com.uni.vetclinicapi.util.CsvReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Registers customers and their pets in bulk from an NDJSON or CSV file, for onboarding the customers of a new clinic.
+ * The file is read as a stream and imported in chunks of "app.importChunkSize" rows, so its size doesn't matter.
+ * Every chunk is validated as a whole - the taken usernames are found with one query, the passwords are hashed in parallel on the hashing pool -
+ * and saved in one transaction, which Hibernate flushes in JDBC batches of "spring.jpa.properties.hibernate.jdbc.batch_size" statements.
+ * Invalid rows are reported with their line and skipped, the rest of the file is still imported.
+ * <p>
+ * A CSV file has a header line with the columns username, password, email, firstName, lastName, phoneNumber and pets,
+ * the pets of a customer are written as "Name|Specie|Breed", separated by ";".
+ * An NDJSON line holds the same fields, with the pets as an array of objects with name, specie and breed.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class ImportService {
+
+    private static final List<String> REQUIRED_CSV_COLUMNS = List.of("username", "password", "email", "firstName", "lastName");
+
+    private static final String CSV_PET_SEPARATOR = ";";
+
+    private static final String CSV_PET_FIELD_SEPARATOR = "\\|";
+
+    private final UserRepository userRepository;
+
+    private final PetRepository petRepository;
+
+    private final RoleService roleService;
+
+    private final PasswordEncoder passwordEncoder;
+
+    private final SearchIndexService searchIndexService;
+
+    private final PetFacetService petFacetService;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.importChunkSize:500}")
+    private int importChunkSize;
+
+    @Value("${app.importMaxReportedErrors:1000}")
+    private int importMaxReportedErrors;
+
+    /**
+     * Imports the customers and their pets from the file. Every imported user gets the CUSTOMER role.
+     *
+     * @param format      - the format of the file.
+     * @param inputStream - the file, it is read to the end, but not closed.
+     * @return - the number of imported users and pets and the reasons of the skipped rows.
+     */
+    public ImportResultDTO importUsers(FileFormat format, InputStream inputStream) {
+        long startMs = System.currentTimeMillis();
+        ImportResultDTO result = new ImportResultDTO();
+        Role role = roleService.getUserRole(Role.RoleType.CUSTOMER);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        RowReader rowReader = format == FileFormat.CSV ? csvRowReader(new CsvReader(reader)) : ndjsonRowReader(reader);
+        List<ImportRow> chunk = new ArrayList<>(importChunkSize);
+        try {
+            ImportRow row;
+            while ((row = rowReader.next()) != null) {
+                chunk.add(row);
+                if (chunk.size() == importChunkSize) {
+                    importChunk(chunk, role, result);
+                    chunk.clear();
+                }
+            }
+        } catch (FileReadException e) {
+            // The rest of the file can't be split into rows, the rows read so far are still imported.
+            addError(result, e.line, null, e.getMessage());
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, role, result);
+        }
+        result.getErrors().sort(Comparator.comparingLong(ImportErrorDTO::getLine));
+        log.info("Imported {} users and {} pets as {}, {} rows failed, in {} ms.",
+                result.getImportedUsers(), result.getImportedPets(), format, result.getFailedRows(), System.currentTimeMillis() - startMs);
+        return result;
+    }
+
+    private void importChunk(List<ImportRow> chunk, Role role, ImportResultDTO result) {
+        List<ImportRow> validRows = new ArrayList<>(chunk.size());
+        Set<String> chunkUsernames = new HashSet<>();
+        for (ImportRow row : chunk) {
+            String error = row.error() != null ? row.error() : validate(row.user());
+            if (error == null && !chunkUsernames.add(row.user().getUsername())) {
+                error = String.format("Username %s appears more than once in the file!", row.user().getUsername());
+            }
+            if (error != null) {
+                addError(result, row.line(), row.user() != null ? row.user().getUsername() : null, error);
+            } else {
+                validRows.add(row);
+            }
+        }
+        if (validRows.isEmpty()) {
+            return;
+        }
+        Set<String> takenUsernames = new HashSet<>(userRepository.findExistingUsernames(chunkUsernames));
+        validRows.removeIf(row -> {
+            String username = row.user().getUsername();
+            if (takenUsernames.contains(username)) {
+                addError(result, row.line(), username, String.format("Username %s already exists!", username));
+                return true;
+            }
+            return false;
+        });
+        if (validRows.isEmpty()) {
+            return;
+        }
+        List<String> encodedPasswords = encodePasswords(validRows.stream().map(row -> row.user().getPassword()).toList());
+        List<ImportedUser> importedUsers = new ArrayList<>(validRows.size());
+        for (int i = 0; i < validRows.size(); i++) {
+            importedUsers.add(toImportedUser(validRows.get(i), encodedPasswords.get(i), role));
+        }
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            transactionTemplate.executeWithoutResult(status -> save(importedUsers));
+            importedUsers.forEach(importedUser -> addImported(result, importedUser));
+        } catch (DataAccessException e) {
+            // Finds the rows, which broke the batch, by saving each row on its own.
+            log.warn("Saving a chunk of {} imported users failed, retrying them one by one.", importedUsers.size(), e);
+            for (ImportedUser importedUser : importedUsers) {
+                ImportedUser freshUser = toImportedUser(importedUser.row(), importedUser.user().getPassword(), role);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> save(List.of(freshUser)));
+                    addImported(result, freshUser);
+                } catch (DataAccessException rowException) {
+                    addError(result, freshUser.row().line(), freshUser.user().getUsername(),
+                            "Could not be saved : " + NestedExceptionUtils.getMostSpecificCause(rowException).getMessage());
+                }
+            }
+        }
+    }
+
+    private void save(List<ImportedUser> importedUsers) {
+        List<User> users = importedUsers.stream().map(ImportedUser::user).toList();
+        List<Pet> pets = importedUsers.stream().flatMap(importedUser -> importedUser.pets().stream()).toList();
+        userRepository.saveAll(users);
+        petRepository.saveAll(pets);
+        users.forEach(searchIndexService::indexUser);
+        pets.forEach(searchIndexService::indexPet);
+        pets.forEach(petFacetService::petAdded);
+    }
+
+    private ImportedUser toImportedUser(ImportRow row, String encodedPassword, Role role) {
+        ImportUserDTO dto = row.user();
+        User user = new User(dto.getUsername(), encodedPassword, dto.getEmail(), dto.getFirstName(), dto.getLastName(), dto.getPhoneNumber(), null, Set.of(role));
+        List<Pet> pets = dto.getPets() == null ? List.of() : dto.getPets().stream()
+                .map(petDTO -> new Pet(petDTO.getName(), petDTO.getSpecie(), petDTO.getBreed(), user))
+                .toList();
+        return new ImportedUser(row, user, pets);
+    }
+
+    private List<String> encodePasswords(List<String> rawPasswords) {
+        if (passwordEncoder instanceof BoundedPasswordEncoder boundedPasswordEncoder) {
+            return boundedPasswordEncoder.encodeAll(rawPasswords);
+        }
+        return rawPasswords.stream().map(passwordEncoder::encode).toList();
+    }
+
+    private String validate(ImportUserDTO user) {
+        Set<ConstraintViolation<ImportUserDTO>> violations = validator.validate(user);
+        if (violations.isEmpty()) {
+            return duplicatePetName(user);
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    // The names of an owner's pets are unique, a duplicate would only fail the saving of the whole chunk.
+    private static String duplicatePetName(ImportUserDTO user) {
+        if (user.getPets() == null) {
+            return null;
+        }
+        Set<String> petNames = new HashSet<>();
+        for (PetDTO pet : user.getPets()) {
+            if (!petNames.add(pet.getName())) {
+                return String.format("Pet name %s appears more than once for the user!", pet.getName());
+            }
+        }
+        return null;
+    }
+
+    private void addImported(ImportResultDTO result, ImportedUser importedUser) {
+        result.setImportedUsers(result.getImportedUsers() + 1);
+        result.setImportedPets(result.getImportedPets() + importedUser.pets().size());
+    }
+
+    private void addError(ImportResultDTO result, long line, String username, String message) {
+        result.setFailedRows(result.getFailedRows() + 1);
+        if (result.getErrors().size() < importMaxReportedErrors) {
+            result.getErrors().add(new ImportErrorDTO(line, username, message));
+        }
+    }
+
+    private RowReader ndjsonRowReader(BufferedReader reader) {
+        long[] lineNumber = {0};
+        return () -> {
+            String line;
+            do {
+                line = readLine(reader, lineNumber[0] + 1);
+                lineNumber[0]++;
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            try {
+                return new ImportRow(lineNumber[0], objectMapper.readValue(line, ImportUserDTO.class), null);
+            } catch (JsonProcessingException e) {
+                return new ImportRow(lineNumber[0], null, "Malformed JSON : " + e.getOriginalMessage());
+            }
+        };
+    }
+
+    private RowReader csvRowReader(CsvReader csvReader) {
+        List<String> header;
+        try {
+            header = csvReader.readRecord();
+        } catch (IOException e) {
+            throw new InvalidImportFileException("The CSV header can't be read : " + e.getMessage());
+        }
+        if (header == null) {
+            throw new InvalidImportFileException("The CSV file is empty, a header line is required!");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        List<String> missingColumns = REQUIRED_CSV_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missingColumns.isEmpty()) {
+            throw new InvalidImportFileException(String.format("The CSV header misses the columns %s!", String.join(", ", missingColumns)));
+        }
+        return () -> {
+            List<String> fields = readRecord(csvReader);
+            if (fields == null) {
+                return null;
+            }
+            long line = csvReader.getRecordLineNumber();
+            if (fields.size() != header.size()) {
+                return new ImportRow(line, null, String.format("Expected %d fields, but found %d!", header.size(), fields.size()));
+            }
+            ImportUserDTO user = new ImportUserDTO(
+                    csvField(fields, columns, "username"),
+                    csvField(fields, columns, "password"),
+                    csvField(fields, columns, "email"),
+                    csvField(fields, columns, "firstName"),
+                    csvField(fields, columns, "lastName"),
+                    csvField(fields, columns, "phoneNumber"),
+                    new ArrayList<>());
+            String pets = csvField(fields, columns, "pets");
+            if (pets != null) {
+                for (String pet : pets.split(CSV_PET_SEPARATOR)) {
+                    String[] petFields = pet.split(CSV_PET_FIELD_SEPARATOR, -1);
+                    if (petFields.length != 3) {
+                        return new ImportRow(line, user, String.format("Pet \"%s\" is not written as Name|Specie|Breed!", pet));
+                    }
+                    user.getPets().add(new PetDTO(petFields[0].trim(), petFields[1].trim(), petFields[2].trim()));
+                }
+            }
+            return new ImportRow(line, user, null);
+        };
+    }
+
+    // Empty fields are missing values, like the nulls of an NDJSON row.
+    private static String csvField(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    private static List<String> readRecord(CsvReader csvReader) {
+        try {
+            return csvReader.readRecord();
+        } catch (IOException e) {
+            throw new FileReadException(csvReader.getRecordLineNumber(), e.getMessage());
+        }
+    }
+
+    private static String readLine(BufferedReader reader, long lineNumber) {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new FileReadException(lineNumber, e.getMessage());
+        }
+    }
+
+    private interface RowReader {
+
+        // Returns null at the end of the file.
+        ImportRow next();
+    }
+
+    // A row of the file with either the read user or the reason, why it couldn't be read.
+    private record ImportRow(long line, ImportUserDTO user, String error) {
+    }
+
+    private record ImportedUser(ImportRow row, User user, List<Pet> pets) {
+    }
+
+    private static class FileReadException extends UncheckedIOException {
+
+        private final long line;
+
+        FileReadException(long line, String message) {
+            super(message, new IOException(message));
+            this.line = line;
+        }
+    }
+}
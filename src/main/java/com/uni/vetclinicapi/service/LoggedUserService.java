@@ -0,0 +1,90 @@
+package com.uni.vetclinicapi.service;
+
+import com.uni.vetclinicapi.persistance.entity.Role;
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.persistance.repository.UserRepository;
+import com.uni.vetclinicapi.presentation.exceptions.InvalidAuthoritiesException;
+import com.uni.vetclinicapi.presentation.exceptions.UserNotFoundException;
+import com.uni.vetclinicapi.security.util.AuthenticatedUser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Gives access to the currently logged user.
+ * The principal of a request is either the User entity or an {@link AuthenticatedUser} built from the token claims,
+ * in which case the entity is only loaded when it is actually needed.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class LoggedUserService {
+
+    private final UserRepository userRepository;
+
+    /**
+     * Returns the id of the logged user, without touching the database.
+     *
+     * @return - the id of the logged user.
+     */
+    public UUID getLoggedUserId() {
+        Object principal = getAuthentication().getPrincipal();
+        if (principal instanceof AuthenticatedUser authenticatedUser) {
+            return authenticatedUser.getId();
+        }
+        if (principal instanceof User user) {
+            return user.getId();
+        }
+        throw new InvalidAuthoritiesException("There is no logged user!");
+    }
+
+    /**
+     * Returns the username of the logged user, without touching the database.
+     *
+     * @return - the username of the logged user.
+     */
+    public String getLoggedUsername() {
+        return getAuthentication().getName();
+    }
+
+    /**
+     * Returns the User entity of the logged user.
+     *
+     * @return - the logged user.
+     */
+    public User getLoggedUser() {
+        Object principal = getAuthentication().getPrincipal();
+        if (principal instanceof User user) {
+            return user;
+        }
+        UUID userId = getLoggedUserId();
+        return userRepository.findById(userId).orElseThrow(() -> {
+            log.warn("Logged User with id: {} does not exist anymore.", userId);
+            throw new UserNotFoundException(String.format("User with id: %s does not exist!", userId));
+        });
+    }
+
+    /**
+     * Checks whether the logged user has the given authority.
+     *
+     * @param authority - the authority to look for.
+     * @return - true if there is a logged user and it has the authority.
+     */
+    public boolean hasAuthority(Role.RoleType authority) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> authority.name().equals(grantedAuthority.getAuthority()));
+    }
+
+    private Authentication getAuthentication() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new InvalidAuthoritiesException("There is no logged user!");
+        }
+        return authentication;
+    }
+}
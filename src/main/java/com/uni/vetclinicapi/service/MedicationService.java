@@ -7,9 +7,10 @@ import com.uni.vetclinicapi.presentation.exceptions.MedicationInsufficientQuanti
 import com.uni.vetclinicapi.presentation.exceptions.MedicationNotFoundException;
 import com.uni.vetclinicapi.service.dto.FullMedicationDTO;
 import com.uni.vetclinicapi.service.dto.MedicationDTO;
+import com.uni.vetclinicapi.service.dto.MedicationViewDTO;
+import com.uni.vetclinicapi.service.mapper.MedicationMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -27,7 +28,9 @@ public class MedicationService {
 
     private final MedicationRepository medRepository;
 
-    private final ModelMapper modelMapper;
+    private final MedicationMapper medicationMapper;
+
+    private final ResourceVersionService resourceVersionService;
 
     /**
      * Checks if a Medication with name like the one of MedicationDTO exists.
@@ -44,10 +47,11 @@ public class MedicationService {
             throw new MedicationAlreadyExistsException(String.format("Medication with the same name: %s already exists!", medDTO.getName()));
         }
 
-        Medication med = modelMapper.map(medDTO, Medication.class);
+        Medication med = medicationMapper.toMedication(medDTO);
         Medication persistedMed = medRepository.save(med);
+        resourceVersionService.medicationsChanged();
         log.info("Medication with details : {}, was created!", med);
-        return modelMapper.map(persistedMed, FullMedicationDTO.class);
+        return medicationMapper.toFullMedicationDTO(persistedMed);
     }
 
     /**
@@ -64,18 +68,18 @@ public class MedicationService {
         });
 
         medRepository.deleteById(medication.getId());
+        resourceVersionService.medicationsChanged();
         log.info("Medication with details : {}, was deleted!", medication);
-        return modelMapper.map(medication, FullMedicationDTO.class);
+        return medicationMapper.toFullMedicationDTO(medication);
     }
 
     /**
      * Returns a list with all medications.
      *
-     * @return - List of FullMedicationDTO with all the information about a medication.
+     * @return - List of MedicationViewDTO with all the information about a medication.
      */
-    public List<FullMedicationDTO> getAllMedications() {
-        List<Medication> medications = medRepository.findAll();
-        return medications.stream().map(med -> modelMapper.map(med, FullMedicationDTO.class)).toList();
+    public List<MedicationViewDTO> getAllMedications() {
+        return medRepository.findAllViews();
     }
 
 
@@ -99,9 +103,10 @@ public class MedicationService {
         updatePropertyIfNotNull(medication,medDTO.getQuantity(),Medication::setQuantity);
 
         Medication persistedMedication = medRepository.save(medication);
+        resourceVersionService.medicationsChanged();
 
         log.info("Medication with details : {}, was updated!", medication);
-        return modelMapper.map(persistedMedication, FullMedicationDTO.class);
+        return medicationMapper.toFullMedicationDTO(persistedMedication);
     }
 
     private <T> void updatePropertyIfNotNull(Medication medication, T value, BiConsumer<Medication, T> setter) {
@@ -124,8 +129,9 @@ public class MedicationService {
         }
 
         Medication persistedMedication = medRepository.save(medication);
+        resourceVersionService.medicationsChanged();
 
         log.info("Medication with details : {}, was updated(quantity)!", medication);
-        return modelMapper.map(persistedMedication, FullMedicationDTO.class);
+        return medicationMapper.toFullMedicationDTO(persistedMedication);
     }
 }
@@ -0,0 +1,188 @@
+package com.uni.vetclinicapi.service;
+
+import com.uni.vetclinicapi.presentation.exceptions.PasswordHashingOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the CPU heavy password hashing and verification on a dedicated, size-bounded thread pool,
+ * so that a burst of logins or registrations can't occupy all the CPU, which other endpoints need.
+ * Work that doesn't fit in the queue is rejected right away with {@link PasswordHashingOverloadedException}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class PasswordHashingService {
+
+    private static final String METRIC_PREFIX = "auth.password.hashing";
+
+    private static final long BATCH_RETRY_DELAY_MS = 10;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.passwordHashingThreads:0}")
+    private int passwordHashingThreads;
+
+    @Value("${app.passwordHashingQueueCapacity:64}")
+    private int passwordHashingQueueCapacity;
+
+    @Value("${app.passwordHashingRetryAfterSeconds:2}")
+    private long passwordHashingRetryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+
+    private Counter rejectedCounter;
+
+    private Timer encodeTimer;
+
+    private Timer verifyTimer;
+
+    private Semaphore batchPermits;
+
+    @PostConstruct
+    public void initExecutor() {
+        // Half of the cores by default, so a storm of logins leaves the other half to the rest of the application.
+        int threads = passwordHashingThreads > 0 ? passwordHashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(passwordHashingQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Password hashing tasks waiting for a thread.")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks currently running.")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("Password hashing tasks rejected, because the queue was full.")
+                .register(meterRegistry);
+        batchPermits = new Semaphore(Math.max(1, passwordHashingQueueCapacity / 2));
+        encodeTimer = hashingTimer("encode");
+        verifyTimer = hashingTimer("verify");
+        log.info("Password hashing executor started with {} threads and queue capacity {}.", threads, passwordHashingQueueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs the hashing of a password on the hashing pool and waits for the result.
+     *
+     * @param hashing - the hashing work.
+     * @param <T>     - type of the result.
+     * @return - the result of the work.
+     */
+    public <T> T encode(Supplier<T> hashing) {
+        return execute("encode", encodeTimer, hashing);
+    }
+
+    /**
+     * Runs the verification of a password against its hash on the hashing pool and waits for the result.
+     *
+     * @param verification - the verification work.
+     * @param <T>          - type of the result.
+     * @return - the result of the work.
+     */
+    public <T> T verify(Supplier<T> verification) {
+        return execute("verify", verifyTimer, verification);
+    }
+
+    /**
+     * Runs the hashing of a batch of passwords in parallel on the hashing pool and waits for all results.
+     * The batch takes at most half of the queue at any time, so logins and registrations arriving meanwhile still find room in it.
+     *
+     * @param hashings - the hashing work of each password.
+     * @param <T>      - type of the results.
+     * @return - the results, in the order of the work.
+     */
+    public <T> List<T> encodeAll(List<Supplier<T>> hashings) {
+        List<Future<T>> futures = new ArrayList<>(hashings.size());
+        for (Supplier<T> hashing : hashings) {
+            batchPermits.acquireUninterruptibly();
+            futures.add(submitBatchTask(() -> {
+                try {
+                    return encodeTimer.record(hashing);
+                } finally {
+                    batchPermits.release();
+                }
+            }));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            results.add(await("encode", future));
+        }
+        return results;
+    }
+
+    private Timer hashingTimer(String operation) {
+        return Timer.builder(METRIC_PREFIX + ".duration")
+                .description("Time spent hashing or verifying a password, without the time spent in the queue.")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    // A batch waits for room in the queue, instead of failing like a single request does.
+    private <T> Future<T> submitBatchTask(Callable<T> task) {
+        while (true) {
+            try {
+                return executor.submit(task);
+            } catch (RejectedExecutionException e) {
+                try {
+                    Thread.sleep(BATCH_RETRY_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the password hashing queue!", interrupted);
+                }
+            }
+        }
+    }
+
+    private <T> T execute(String operation, Timer timer, Supplier<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.record(task));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            log.warn("Rejected password {} task, {} tasks are already waiting.", operation, executor.getQueue().size());
+            throw new PasswordHashingOverloadedException("Too many authentication requests, please try again later!", passwordHashingRetryAfterSeconds);
+        }
+        return await(operation, future);
+    }
+
+    private <T> T await(String operation, Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password " + operation + "!", e);
+        }
+    }
+}
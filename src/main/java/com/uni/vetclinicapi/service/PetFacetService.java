@@ -0,0 +1,174 @@
+package com.uni.vetclinicapi.service;
+
+import com.uni.vetclinicapi.persistance.entity.Pet;
+import com.uni.vetclinicapi.persistance.projection.PetFacetCount;
+import com.uni.vetclinicapi.persistance.repository.PetRepository;
+import com.uni.vetclinicapi.presentation.exceptions.InvalidPageRequestException;
+import com.uni.vetclinicapi.service.dto.PetFacetPageDTO;
+import com.uni.vetclinicapi.service.dto.PetViewDTO;
+import com.uni.vetclinicapi.service.mapper.PetMapper;
+import com.uni.vetclinicapi.util.FacetCounter;
+import com.uni.vetclinicapi.util.KeysetCursor;
+import com.uni.vetclinicapi.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Searches the pets by specie and breed, a page at a time, and counts the pets of every specie and breed for the dashboards.
+ * The pages are read through the specie and breed indexes with keyset pagination.
+ * The counts come from an in-memory aggregate, which is loaded on start up with a single GROUP BY and then updated by the services
+ * after every committed change of a pet, so a search never counts the table.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class PetFacetService implements SmartInitializingSingleton {
+
+    private static final String SORT_BY_ID = "id";
+
+    private static final UUID FIRST_ID = new UUID(0, 0);
+
+    private final PetRepository petRepository;
+
+    private final PetMapper petMapper;
+
+    @Value("${app.defaultPageSize:20}")
+    private int defaultPageSize;
+
+    @Value("${app.maxPageSize:100}")
+    private int maxPageSize;
+
+    private final FacetCounter<String, String> specieBreedCounts = new FacetCounter<>();
+
+    /**
+     * Loads the counts once all beans are created, after the initial data is in place, but before the web server accepts requests.
+     * So no pet is changed while the counts are loaded, a change counted both by the GROUP BY and by the services would be counted twice.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        long startMs = System.currentTimeMillis();
+        List<PetFacetCount> facetCounts = petRepository.countAllBySpecieAndBreed();
+        facetCounts.forEach(facetCount -> specieBreedCounts.add(facetCount.getSpecie(), facetCount.getBreed(), facetCount.getCount()));
+        log.info("Pet facet counts of {} species and breeds were loaded in {} ms.", facetCounts.size(), System.currentTimeMillis() - startMs);
+    }
+
+    /**
+     * Finds a page of the pets of the specie and breed, together with the facet counts.
+     * The species are counted among the pets of the breed and the breeds among the pets of the specie,
+     * so the counts show how many pets each other choice of the same facet would find.
+     *
+     * @param specie - the specie of the pets, any if null.
+     * @param breed  - the breed of the pets, any if null.
+     * @param size   - the number of pets on the page, "app.defaultPageSize" if null.
+     * @param after  - the cursor of the previous page, null for the first page.
+     * @return - the page of pets, the cursor of the next one and the facet counts.
+     */
+    public PetFacetPageDTO search(String specie, String breed, Integer size, String after) {
+        int pageSize = size != null ? size : defaultPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new InvalidPageRequestException(String.format("Page size must be between 1 and %d!", maxPageSize));
+        }
+        String filters = filters(specie, breed);
+        UUID afterId = after != null ? decodeCursor(after, filters) : FIRST_ID;
+        // One pet more than requested is fetched, to find out whether there is a next page.
+        Pageable limit = PageRequest.ofSize(pageSize + 1);
+        List<PetViewDTO> pets;
+        if (specie != null && breed != null) {
+            pets = petRepository.findViewPageBySpecieAndBreed(specie, breed, afterId, limit);
+        } else if (specie != null) {
+            pets = petRepository.findViewPageBySpecie(specie, afterId, limit);
+        } else if (breed != null) {
+            pets = petRepository.findViewPageByBreed(breed, afterId, limit);
+        } else {
+            pets = petRepository.findViewPage(afterId, limit);
+        }
+        String nextCursor = null;
+        if (pets.size() > pageSize) {
+            pets = pets.subList(0, pageSize);
+            nextCursor = new KeysetCursor(SORT_BY_ID, filters, pets.get(pageSize - 1).getId()).encode();
+        }
+        return new PetFacetPageDTO(
+                pets.stream().map(petMapper::toPetSummaryDTO).toList(),
+                nextCursor,
+                specieBreedCounts.count(specie, breed),
+                specieBreedCounts.countByFirst(breed),
+                specieBreedCounts.countBySecond(specie));
+    }
+
+    /**
+     * Counts the pet, once the current transaction is committed.
+     *
+     * @param pet - the created pet.
+     */
+    public void petAdded(Pet pet) {
+        String specie = pet.getSpecie();
+        String breed = pet.getBreed();
+        TransactionCallbacks.runAfterCommit(() -> specieBreedCounts.add(specie, breed, 1));
+    }
+
+    /**
+     * Moves the pet to its new specie and breed, once the current transaction is committed.
+     *
+     * @param oldSpecie - the specie of the pet before the update.
+     * @param oldBreed  - the breed of the pet before the update.
+     * @param pet       - the updated pet.
+     */
+    public void petChanged(String oldSpecie, String oldBreed, Pet pet) {
+        String specie = pet.getSpecie();
+        String breed = pet.getBreed();
+        if (Objects.equals(oldSpecie, specie) && Objects.equals(oldBreed, breed)) {
+            return;
+        }
+        TransactionCallbacks.runAfterCommit(() -> {
+            specieBreedCounts.add(oldSpecie, oldBreed, -1);
+            specieBreedCounts.add(specie, breed, 1);
+        });
+    }
+
+    /**
+     * Stops counting the pet, once the current transaction is committed.
+     *
+     * @param pet - the deleted pet.
+     */
+    public void petRemoved(Pet pet) {
+        String specie = pet.getSpecie();
+        String breed = pet.getBreed();
+        TransactionCallbacks.runAfterCommit(() -> specieBreedCounts.add(specie, breed, -1));
+    }
+
+    /**
+     * Stops counting the pets, once the current transaction is committed.
+     *
+     * @param facetCounts - the number of the deleted pets of every specie and breed.
+     */
+    public void petsRemoved(List<PetFacetCount> facetCounts) {
+        TransactionCallbacks.runAfterCommit(() -> facetCounts.forEach(facetCount ->
+                specieBreedCounts.add(facetCount.getSpecie(), facetCount.getBreed(), -facetCount.getCount())));
+    }
+
+    // Ties the cursor to the filters of the search, a page after it wouldn't mean anything with other filters.
+    private static String filters(String specie, String breed) {
+        return Objects.toString(specie, "") + "|" + Objects.toString(breed, "");
+    }
+
+    private static UUID decodeCursor(String after, String filters) {
+        try {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            if (SORT_BY_ID.equals(cursor.sort()) && filters.equals(cursor.value())) {
+                return cursor.id();
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Attempted to fetch Pets after a malformed cursor : {}", after);
+        }
+        throw new InvalidPageRequestException(String.format("Cursor %s is not a valid cursor for this search!", after));
+    }
+}
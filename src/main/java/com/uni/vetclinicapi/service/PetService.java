@@ -4,20 +4,30 @@ import com.uni.vetclinicapi.persistance.entity.Pet;
 import com.uni.vetclinicapi.persistance.entity.User;
 import com.uni.vetclinicapi.persistance.repository.PetRepository;
 import com.uni.vetclinicapi.persistance.repository.UserRepository;
+import com.uni.vetclinicapi.presentation.exceptions.InvalidBatchRequestException;
 import com.uni.vetclinicapi.presentation.exceptions.PetAlreadyExistsException;
 import com.uni.vetclinicapi.presentation.exceptions.PetNotFoundException;
 import com.uni.vetclinicapi.presentation.exceptions.UserNotFoundException;
 import com.uni.vetclinicapi.service.dto.FullPetDTO;
+import com.uni.vetclinicapi.service.dto.PetBatchResultDTO;
 import com.uni.vetclinicapi.service.dto.PetDTO;
+import com.uni.vetclinicapi.service.dto.PetViewDTO;
+import com.uni.vetclinicapi.service.mapper.PetMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 /**
  * Provides the necessary methods regarding CRUD operations with Pet Entities.
@@ -32,7 +42,22 @@ public class PetService {
 
     private final UserRepository userRepository;
 
-    private final ModelMapper modelMapper;
+    private final PetMapper petMapper;
+
+    private final LoggedUserService loggedUserService;
+
+    private final SearchIndexService searchIndexService;
+
+    private final ResourceVersionService resourceVersionService;
+
+    private final PetFacetService petFacetService;
+
+    private final Validator validator;
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.petBatchMaxSize:100}")
+    private int petBatchMaxSize;
 
     /**
      * Checks if a Pet with name and owner like the one of PetDTO exists.
@@ -44,49 +69,126 @@ public class PetService {
      */
 
     public FullPetDTO create(PetDTO petDTO) {
-        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        boolean exists = petRepository.findAllByUser(user).stream().anyMatch(pet -> pet.getName().equals(petDTO.getName()));
-        if (exists) {
-            log.warn("Attempted to create a Pet with name: {} for User with id: {}, which already exists.", petDTO.getName(),user.getId());
-            throw new PetAlreadyExistsException(String.format("Pet with the same name: %s and owner: %s already existsw!", petDTO.getName(),user.getUsername()));
+        User user = loggedUserService.getLoggedUser();
+        if (petRepository.existsByUserIdAndName(user.getId(), petDTO.getName())) {
+            throw petAlreadyExists(petDTO.getName(), user);
         }
 
-        Pet pet = modelMapper.map(petDTO, Pet.class);
+        Pet pet = petMapper.toPet(petDTO);
         pet.setUser(user);
-        Pet persistedPet = petRepository.save(pet);
+        Pet persistedPet = saveUniquelyNamed(pet);
+        searchIndexService.indexPet(persistedPet);
+        petFacetService.petAdded(persistedPet);
+        resourceVersionService.petsChanged(user.getId());
         log.info("Pet with details : {}, was created!", pet);
-        return modelMapper.map(persistedPet, FullPetDTO.class);
+        return petMapper.toFullPetDTO(persistedPet);
     }
 
 
 
-    public List<FullPetDTO> findAllPetsForUserById(UUID userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> {
+    /**
+     * Creates several pets of the logged user at once.
+     * Invalid pets and names used more than once in the request are found in memory, the names the user already has with a single query,
+     * and the remaining pets are saved in a single transaction, which Hibernate inserts in JDBC batches.
+     * Every pet gets its own result, so the rejected ones don't stop the others.
+     *
+     * @param petDTOs - Pet data coming from request, at most "app.petBatchMaxSize" of them.
+     * @return - the result of every pet, in the order of the request.
+     */
+    public List<PetBatchResultDTO> createAll(List<PetDTO> petDTOs) {
+        if (petDTOs.isEmpty() || petDTOs.size() > petBatchMaxSize) {
+            throw new InvalidBatchRequestException(String.format("A batch must hold from 1 to %d pets!", petBatchMaxSize));
+        }
+        User user = loggedUserService.getLoggedUser();
+        PetBatchResultDTO[] results = new PetBatchResultDTO[petDTOs.size()];
+        Map<String, Integer> requestedNames = new LinkedHashMap<>();
+        for (int i = 0; i < petDTOs.size(); i++) {
+            PetDTO petDTO = petDTOs.get(i);
+            Set<ConstraintViolation<PetDTO>> violations = petDTO == null ? Set.of() : validator.validate(petDTO);
+            if (petDTO == null || !violations.isEmpty()) {
+                String message = petDTO == null ? "Pet should be specified." : violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+                results[i] = new PetBatchResultDTO(i, HttpStatus.BAD_REQUEST.value(), null, message);
+            } else if (requestedNames.putIfAbsent(petDTO.getName(), i) != null) {
+                results[i] = new PetBatchResultDTO(i, HttpStatus.CONFLICT.value(), null,
+                        String.format("Pet name %s appears more than once in the request!", petDTO.getName()));
+            }
+        }
+        if (!requestedNames.isEmpty()) {
+            petRepository.findExistingNames(user.getId(), requestedNames.keySet()).forEach(name -> {
+                int index = requestedNames.remove(name);
+                results[index] = new PetBatchResultDTO(index, HttpStatus.CONFLICT.value(), null,
+                        String.format("Pet with the same name: %s and owner: %s already exists!", name, user.getUsername()));
+            });
+        }
+        if (!requestedNames.isEmpty()) {
+            saveBatch(user, petDTOs, requestedNames.values(), results);
+        }
+        List<PetBatchResultDTO> batchResults = Arrays.asList(results);
+        log.info("{} of {} Pets in a batch for User with id : {}, were created.",
+                batchResults.stream().filter(result -> result.getPet() != null).count(), petDTOs.size(), user.getId());
+        return batchResults;
+    }
+
+    private void saveBatch(User user, List<PetDTO> petDTOs, Collection<Integer> indexes, PetBatchResultDTO[] results) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int index : indexes) {
+                    Pet pet = petMapper.toPet(petDTOs.get(index));
+                    pet.setUser(user);
+                    results[index] = created(index, petRepository.save(pet));
+                }
+                petRepository.flush();
+                resourceVersionService.petsChanged(user.getId());
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (!isOwnerNameViolation(e)) {
+                throw e;
+            }
+            // A concurrent request took one of the names after the check, the pets are saved one by one to find it.
+            log.warn("A batch of Pets for User with id : {}, collided with a concurrent create, saving them one by one.", user.getId());
+            for (int index : indexes) {
+                Pet pet = petMapper.toPet(petDTOs.get(index));
+                pet.setUser(user);
+                try {
+                    results[index] = created(index, saveUniquelyNamed(pet));
+                    resourceVersionService.petsChanged(user.getId());
+                } catch (PetAlreadyExistsException alreadyExists) {
+                    results[index] = new PetBatchResultDTO(index, HttpStatus.CONFLICT.value(), null, alreadyExists.getMessage());
+                }
+            }
+        }
+    }
+
+    private PetBatchResultDTO created(int index, Pet pet) {
+        searchIndexService.indexPet(pet);
+        petFacetService.petAdded(pet);
+        return new PetBatchResultDTO(index, HttpStatus.CREATED.value(), petMapper.toFullPetDTO(pet), null);
+    }
+
+    public List<PetViewDTO> findAllPetsForUserById(UUID userId) {
+        if (!userRepository.existsById(userId)) {
             log.warn("Attempted to fetch a User with id: {} , which does not exist.", userId);
             throw new UserNotFoundException(String.format("User with id: %s does not exist!", userId));
-        });
-        List<FullPetDTO> fullPetDTOList = petRepository.findAllByUser(user)
-                .stream()
-                .map(pet -> modelMapper.map(pet, FullPetDTO.class)).toList();
-        if (fullPetDTOList.isEmpty()) {
-            log.info("There are no Pets present in database!");
-        } else {
-            log.info("{} Pets for user with id : {}, have been fetched from database.", fullPetDTOList.size(), user.getId());
         }
-        return fullPetDTOList;
+        return findAllPetViews(userId);
     }
 
-    public List<FullPetDTO> findAllPetsForLoggedUser() {
-        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        List<FullPetDTO> fullPetDTOList = petRepository.findAllByUser(user)
-                .stream()
-                .map(pet -> modelMapper.map(pet, FullPetDTO.class)).toList();
-        if (fullPetDTOList.isEmpty()) {
+    public List<PetViewDTO> findAllPetsForLoggedUser() {
+        return findAllPetViews(loggedUserService.getLoggedUserId());
+    }
+
+    private List<PetViewDTO> findAllPetViews(UUID userId) {
+        List<PetViewDTO> petViews = petRepository.findAllViewsByUserId(userId);
+        if (petViews.isEmpty()) {
             log.info("There are no Pets present in database!");
         } else {
-            log.info("{} Pets for user with id : {}, have been fetched from database.", fullPetDTOList.size(), user.getId());
+            log.info("{} Pets for user with id : {}, have been fetched from database.", petViews.size(), userId);
         }
-        return fullPetDTOList;
+        return petViews;
     }
 
     /**
@@ -97,17 +199,23 @@ public class PetService {
      * @return - FullPetDTO object, containing all the information for the deleted Pet Entity.
      */
     public FullPetDTO deletePetFromUser(UUID petId) {
-        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        UUID userId = loggedUserService.getLoggedUserId();
+        String username = loggedUserService.getLoggedUsername();
         System.out.println(petId);
         System.out.println(petRepository.findById(petId));
         Pet pet = petRepository.findById(petId).orElseThrow(() -> {
-            log.warn("Attempted to delete a Pet with id: {} for User with id: {}, which does not exist.", petId,user.getId());
-            throw new PetNotFoundException(String.format("Pet with id: %s and owner: %s does not exist!", petId,user.getUsername()));
+            log.warn("Attempted to delete a Pet with id: {} for User with id: {}, which does not exist.", petId,userId);
+            throw new PetNotFoundException(String.format("Pet with id: %s and owner: %s does not exist!", petId,username));
         });
 
         petRepository.deleteById(pet.getId());
+        searchIndexService.removePet(pet.getId());
+        petFacetService.petRemoved(pet);
+        if (pet.getUser() != null) {
+            resourceVersionService.petsChanged(pet.getUser().getId());
+        }
         log.info("Pet with details : {}, was deleted!", pet);
-        return modelMapper.map(pet, FullPetDTO.class);
+        return petMapper.toFullPetDTO(pet);
     }
 
 
@@ -127,14 +235,49 @@ public class PetService {
         });
 
 
+        String oldSpecie = pet.getSpecie();
+        String oldBreed = pet.getBreed();
         updatePropertyIfNotNull(pet,petDTO.getBreed(),Pet::setBreed);
         updatePropertyIfNotNull(pet,petDTO.getName(),Pet::setName);
         updatePropertyIfNotNull(pet,petDTO.getSpecie(),Pet::setSpecie);
 
-        Pet persistedPet = petRepository.save(pet);
+        Pet persistedPet = saveUniquelyNamed(pet);
+        searchIndexService.indexPet(persistedPet);
+        petFacetService.petChanged(oldSpecie, oldBreed, persistedPet);
+        if (persistedPet.getUser() != null) {
+            resourceVersionService.petsChanged(persistedPet.getUser().getId());
+        }
 
         log.info("Pet with details : {}, was updated!", pet);
-        return modelMapper.map(persistedPet, FullPetDTO.class);
+        return petMapper.toFullPetDTO(persistedPet);
+    }
+
+    /**
+     * Saves the pet right away, so that a name taken by a concurrent create or update fails the unique constraint here,
+     * instead of being found by the check before.
+     *
+     * @param pet - the created or updated pet.
+     * @return - the saved pet.
+     */
+    private Pet saveUniquelyNamed(Pet pet) {
+        try {
+            return petRepository.saveAndFlush(pet);
+        } catch (DataIntegrityViolationException e) {
+            if (isOwnerNameViolation(e)) {
+                throw petAlreadyExists(pet.getName(), pet.getUser());
+            }
+            throw e;
+        }
+    }
+
+    private PetAlreadyExistsException petAlreadyExists(String name, User user) {
+        log.warn("Attempted to save a Pet with name: {} for User with id: {}, which already exists.", name, user.getId());
+        return new PetAlreadyExistsException(String.format("Pet with the same name: %s and owner: %s already exists!", name, user.getUsername()));
+    }
+
+    private static boolean isOwnerNameViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Pet.OWNER_NAME_CONSTRAINT);
     }
 
     /**
@@ -0,0 +1,140 @@
+package com.uni.vetclinicapi.service;
+
+import com.uni.vetclinicapi.persistance.entity.Role;
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a version counter for every resource the clients poll - the profile, the pets and the visits of each user and the list of medications.
+ * The services increase a counter after every committed change of its resource, and the controllers turn the counters into strong ETags,
+ * so an unchanged resource is answered with 304 Not Modified, without a query.
+ * The counters live in memory, so the ETags include the start time of the application, which keeps them from repeating after a restart,
+ * and the id of the user, which keeps the ETag of one user's resource from matching another user's.
+ */
+@RequiredArgsConstructor
+@Service
+public class ResourceVersionService {
+
+    private final LoggedUserService loggedUserService;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final Map<UUID, Long> profileVersions = new ConcurrentHashMap<>();
+
+    private final Map<UUID, Long> petVersions = new ConcurrentHashMap<>();
+
+    private final Map<UUID, Long> visitVersions = new ConcurrentHashMap<>();
+
+    // The visits show the names of their vets, so they change with every vet.
+    private final AtomicLong vetsVersion = new AtomicLong();
+
+    private final AtomicLong medicationsVersion = new AtomicLong();
+
+    /**
+     * @return - the ETag of the logged user's profile.
+     */
+    public String loggedUserETag() {
+        UUID userId = loggedUserService.getLoggedUserId();
+        return eTag(userId + "-" + profileVersions.getOrDefault(userId, 0L));
+    }
+
+    /**
+     * @return - the ETag of the logged user's pets.
+     */
+    public String loggedUserPetsETag() {
+        UUID userId = loggedUserService.getLoggedUserId();
+        return eTag(userId + "-" + petVersions.getOrDefault(userId, 0L));
+    }
+
+    /**
+     * @return - the ETag of the logged user's visits.
+     */
+    public String loggedUserVisitsETag() {
+        UUID userId = loggedUserService.getLoggedUserId();
+        return eTag(userId + "-" + visitVersions.getOrDefault(userId, 0L) + "-" + vetsVersion.get());
+    }
+
+    /**
+     * @return - the ETag of the list of medications.
+     */
+    public String medicationsETag() {
+        return eTag(Long.toString(medicationsVersion.get()));
+    }
+
+    /**
+     * Changes the ETag of the user's profile, and of all visits if the user is a vet, once the current transaction is committed.
+     *
+     * @param user - the updated user.
+     */
+    public void userChanged(User user) {
+        UUID userId = user.getId();
+        boolean vet = isVet(user);
+        TransactionCallbacks.runAfterCommit(() -> {
+            profileVersions.merge(userId, 1L, Long::sum);
+            if (vet) {
+                vetsVersion.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Drops the counters of the user and changes the ETag of all visits if the user is a vet, once the current transaction is committed.
+     *
+     * @param user - the deleted user.
+     */
+    public void userDeleted(User user) {
+        UUID userId = user.getId();
+        boolean vet = isVet(user);
+        TransactionCallbacks.runAfterCommit(() -> {
+            profileVersions.remove(userId);
+            petVersions.remove(userId);
+            visitVersions.remove(userId);
+            if (vet) {
+                vetsVersion.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Changes the ETag of the owner's pets, and of the owner's visits, which show the names of the pets, once the current transaction is committed.
+     *
+     * @param ownerId - the id of the owner of the created, updated or deleted pet.
+     */
+    public void petsChanged(UUID ownerId) {
+        TransactionCallbacks.runAfterCommit(() -> {
+            petVersions.merge(ownerId, 1L, Long::sum);
+            visitVersions.merge(ownerId, 1L, Long::sum);
+        });
+    }
+
+    /**
+     * Changes the ETag of the user's visits, once the current transaction is committed.
+     *
+     * @param userId - the id of the user, who made the visit.
+     */
+    public void visitsChanged(UUID userId) {
+        TransactionCallbacks.runAfterCommit(() -> visitVersions.merge(userId, 1L, Long::sum));
+    }
+
+    /**
+     * Changes the ETag of the list of medications, once the current transaction is committed.
+     */
+    public void medicationsChanged() {
+        TransactionCallbacks.runAfterCommit(medicationsVersion::incrementAndGet);
+    }
+
+    private String eTag(String version) {
+        return "\"" + epoch + "-" + version + "\"";
+    }
+
+    private static boolean isVet(User user) {
+        return user.getAuthorities().stream().anyMatch(role -> role.getAuthority().equals(Role.RoleType.VET.name()));
+    }
+}
@@ -0,0 +1,148 @@
+package com.uni.vetclinicapi.service;
+
+import com.uni.vetclinicapi.persistance.entity.Pet;
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.persistance.repository.PetRepository;
+import com.uni.vetclinicapi.persistance.repository.UserRepository;
+import com.uni.vetclinicapi.presentation.exceptions.InvalidPageRequestException;
+import com.uni.vetclinicapi.service.dto.PetSummaryDTO;
+import com.uni.vetclinicapi.service.dto.PetViewDTO;
+import com.uni.vetclinicapi.service.dto.SearchResultDTO;
+import com.uni.vetclinicapi.service.dto.UserInfoDTO;
+import com.uni.vetclinicapi.service.mapper.PetMapper;
+import com.uni.vetclinicapi.service.mapper.UserMapper;
+import com.uni.vetclinicapi.util.PrefixIndex;
+import com.uni.vetclinicapi.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Finds users by the first letters of their first name, last name, email or phone number and pets by the first letters of their name, while they are typed.
+ * The searched fields are kept in in-memory prefix indexes, which are loaded on start up and then updated by the services on every change,
+ * so a search doesn't query the database.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class SearchIndexService implements SmartInitializingSingleton {
+
+    private final UserRepository userRepository;
+
+    private final PetRepository petRepository;
+
+    private final UserMapper userMapper;
+
+    private final PetMapper petMapper;
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.searchDefaultLimit:10}")
+    private int defaultLimit;
+
+    @Value("${app.searchMaxLimit:50}")
+    private int maxLimit;
+
+    private final PrefixIndex<UUID, UserInfoDTO> userIndex = new PrefixIndex<>();
+
+    private final PrefixIndex<UUID, PetSummaryDTO> petIndex = new PrefixIndex<>();
+
+    /**
+     * Loads the indexes once all beans are created, after the initial data is in place, but before the web server accepts requests.
+     * So a user or pet deleted while the indexes are loaded can't be put back into them by the load.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        long startMs = System.currentTimeMillis();
+        userRepository.findAllWithAuthorities().forEach(this::putUser);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<PetViewDTO> petViews = petRepository.streamAllViews()) {
+                petViews.forEach(petView -> putPet(petMapper.toPetSummaryDTO(petView)));
+            }
+        });
+        log.info("Search indexes with {} users and {} pets were loaded in {} ms.", userIndex.size(), petIndex.size(), System.currentTimeMillis() - startMs);
+    }
+
+    /**
+     * Finds the users and pets matching the query.
+     *
+     * @param query - one or more words, each of them has to be the start of a word of one of the searched fields.
+     * @param limit - the maximum number of users and of pets, "app.searchDefaultLimit" if null.
+     * @return - the matching users and pets.
+     */
+    public SearchResultDTO search(String query, Integer limit) {
+        int resultLimit = limit != null ? limit : defaultLimit;
+        if (resultLimit < 1 || resultLimit > maxLimit) {
+            throw new InvalidPageRequestException(String.format("Search limit must be between 1 and %d!", maxLimit));
+        }
+        return new SearchResultDTO(userIndex.search(query, resultLimit), petIndex.search(query, resultLimit));
+    }
+
+    /**
+     * Adds or updates the user in the index, once the current transaction is committed.
+     * A user pending deletion is removed instead.
+     *
+     * @param user - the created or updated user.
+     */
+    public void indexUser(User user) {
+        if (user.isPendingDeletion()) {
+            removeUser(user.getId());
+            return;
+        }
+        TransactionCallbacks.runAfterCommit(() -> putUser(user));
+    }
+
+    /**
+     * Removes the user and the user's pets from the index, once the current transaction is committed.
+     *
+     * @param userId - the id of the deleted user.
+     */
+    public void removeUser(UUID userId) {
+        TransactionCallbacks.runAfterCommit(() -> {
+            userIndex.remove(userId);
+            petIndex.removeIf(pet -> userId.equals(pet.getOwnerId()));
+        });
+    }
+
+    /**
+     * Adds or updates the pet in the index, once the current transaction is committed.
+     *
+     * @param pet - the created or updated pet.
+     */
+    public void indexPet(Pet pet) {
+        PetSummaryDTO petSummary = petMapper.toPetSummaryDTO(pet);
+        TransactionCallbacks.runAfterCommit(() -> putPet(petSummary));
+    }
+
+    /**
+     * Removes the pet from the index, once the current transaction is committed.
+     *
+     * @param petId - the id of the deleted pet.
+     */
+    public void removePet(UUID petId) {
+        TransactionCallbacks.runAfterCommit(() -> petIndex.remove(petId));
+    }
+
+    private void putUser(User user) {
+        if (user.isPendingDeletion()) {
+            return;
+        }
+        String phoneDigits = user.getPhoneNumber() != null ? user.getPhoneNumber().replaceAll("\\D", "") : null;
+        userIndex.put(user.getId(), userMapper.toUserInfoDTO(user), Arrays.asList(user.getFName(), user.getLName(), user.getEmail(), phoneDigits));
+    }
+
+    private void putPet(PetSummaryDTO petSummary) {
+        petIndex.put(petSummary.getId(), petSummary, List.of(petSummary.getName()));
+    }
+}
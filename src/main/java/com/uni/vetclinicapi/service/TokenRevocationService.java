@@ -0,0 +1,189 @@
+package com.uni.vetclinicapi.service;
+
+import com.uni.vetclinicapi.persistance.entity.RevokedToken;
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.persistance.repository.RevokedTokenRepository;
+import com.uni.vetclinicapi.persistance.repository.UserRepository;
+import com.uni.vetclinicapi.security.util.VerifiedJwtClaims;
+import com.uni.vetclinicapi.util.BloomFilter;
+import com.uni.vetclinicapi.util.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of revoked JSON Web Tokens, without a trip to the database when a token is checked.
+ * Single tokens are revoked by their id, which is kept in an exact set until the token expires.
+ * A Bloom filter in front of the set answers the common case - a token which isn't revoked - with a few bit lookups.
+ * All tokens of a user are revoked at once by increasing the user's token version,
+ * the versions of the users who did so are loaded on start up and kept in memory.
+ * Revoked token ids and the revocations of deleted users, who have no token version anymore, are stored in the revoked_tokens table as well,
+ * so they survive a restart. Both are dropped from memory and from the table once the tokens they revoke have expired.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class TokenRevocationService {
+
+    private final UserRepository userRepository;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    @Value("${app.jwtRevocationExpectedTokens:100000}")
+    private int expectedRevokedTokens;
+
+    @Value("${app.jwtRevocationFalsePositiveRate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${app.jwtRefreshExpirationMs:1209600000}")
+    private long jwtRefreshExpirationMs;
+
+    private final Map<String, Long> revokedTokenIds = new ConcurrentHashMap<>();
+
+    private final Map<UUID, Integer> minimumTokenVersions = new ConcurrentHashMap<>();
+
+    // When the last token of each deleted user expires, after which the user's entry in the minimum token versions is dropped.
+    private final Map<UUID, Long> deletedUserExpirations = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter revokedTokenFilter;
+
+    @PostConstruct
+    public void loadTokenVersions() {
+        revokedTokenFilter = new BloomFilter(expectedRevokedTokens, falsePositiveRate);
+        userRepository.findAllByTokenVersionGreaterThan(0)
+                .forEach(user -> minimumTokenVersions.put(user.getId(), user.getTokenVersion()));
+        List<RevokedToken> revokedTokens = revokedTokenRepository.findAllByExpiresAtAfter(Instant.now());
+        revokedTokens.forEach(revokedToken -> {
+            if (revokedToken.getTokenId() != null) {
+                rememberRevokedToken(revokedToken.getTokenId(), revokedToken.getExpiresAt().toEpochMilli());
+            } else {
+                rememberDeletedUser(revokedToken.getUserId(), revokedToken.getExpiresAt().toEpochMilli());
+            }
+        });
+        log.info("Loaded token versions of {} users and {} stored revocations.", minimumTokenVersions.size(), revokedTokens.size());
+    }
+
+    /**
+     * Checks whether a verified token was revoked, either on its own or together with all tokens of its owner.
+     *
+     * @param claims - the verified claims of the token.
+     * @return - true if the token must not be accepted anymore.
+     */
+    public boolean isRevoked(VerifiedJwtClaims claims) {
+        if (claims.getUserId() != null) {
+            Integer minimumTokenVersion = minimumTokenVersions.get(claims.getUserId());
+            if (minimumTokenVersion != null && claims.getTokenVersion() < minimumTokenVersion) {
+                return true;
+            }
+        }
+        String tokenId = claims.getTokenId();
+        return tokenId != null && revokedTokenFilter.mightContain(tokenId) && revokedTokenIds.containsKey(tokenId);
+    }
+
+    /**
+     * Revokes a single token until it expires.
+     * The revocation is stored before it is remembered, the unique token id lets only one call revoke a token, even across instances.
+     *
+     * @param claims - the verified claims of the token.
+     * @return - true if this call revoked the token, false if it was already revoked or has no id.
+     */
+    public boolean revokeToken(VerifiedJwtClaims claims) {
+        String tokenId = claims.getTokenId();
+        if (tokenId == null || revokedTokenIds.containsKey(tokenId)) {
+            return false;
+        }
+        long expiresAtMs = claims.getExpiration().getTime();
+        try {
+            revokedTokenRepository.saveAndFlush(RevokedToken.ofToken(tokenId, Instant.ofEpochMilli(expiresAtMs)));
+        } catch (DataIntegrityViolationException e) {
+            if (!isTokenIdViolation(e)) {
+                throw e;
+            }
+            rememberRevokedToken(tokenId, expiresAtMs);
+            return false;
+        }
+        rememberRevokedToken(tokenId, expiresAtMs);
+        return true;
+    }
+
+    /**
+     * Revokes all tokens issued to the user so far by increasing the user's token version.
+     *
+     * @param user - the user, whose tokens to revoke.
+     * @return - the user with the new token version, which has to be used for the next tokens.
+     */
+    public User revokeAllTokens(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        User persistedUser = userRepository.save(user);
+        minimumTokenVersions.merge(user.getId(), persistedUser.getTokenVersion(), Math::max);
+        log.info("All tokens of user with id : {}, were revoked.", user.getId());
+        return persistedUser;
+    }
+
+    /**
+     * Revokes all tokens of a user, who was deleted and can't be given a new token version anymore.
+     * No token of the user outlives "app.jwtRefreshExpirationMs", so the revocation is kept only that long.
+     * The revocation is stored within the current transaction and applied once it is committed.
+     *
+     * @param userId - the id of the deleted user.
+     */
+    public void revokeAllTokensOfDeletedUser(UUID userId) {
+        long expiresAtMs = System.currentTimeMillis() + jwtRefreshExpirationMs;
+        revokedTokenRepository.save(RevokedToken.ofDeletedUser(userId, Instant.ofEpochMilli(expiresAtMs)));
+        TransactionCallbacks.runAfterCommit(() -> rememberDeletedUser(userId, expiresAtMs));
+    }
+
+    /**
+     * Drops the revocations of expired tokens, from the table and from memory, and rebuilds the Bloom filter from the remaining token ids,
+     * because values can't be removed from a Bloom filter.
+     */
+    @Scheduled(fixedDelayString = "${app.jwtRevocationSweepMs:600000}")
+    public void sweepExpiredTokenIds() {
+        long now = System.currentTimeMillis();
+        int deletedRevocations = revokedTokenRepository.deleteAllExpired(Instant.ofEpochMilli(now));
+        deletedUserExpirations.entrySet().removeIf(deletedUser -> {
+            if (deletedUser.getValue() > now) {
+                return false;
+            }
+            minimumTokenVersions.remove(deletedUser.getKey(), Integer.MAX_VALUE);
+            return true;
+        });
+        rebuildFilter(now);
+        log.debug("Revoked token filter rebuilt with {} token ids, {} expired revocations were deleted.", revokedTokenIds.size(), deletedRevocations);
+    }
+
+    private synchronized void rebuildFilter(long now) {
+        revokedTokenIds.values().removeIf(expiresAtMs -> expiresAtMs <= now);
+        BloomFilter rebuiltFilter = new BloomFilter(Math.max(expectedRevokedTokens, revokedTokenIds.size() * 2), falsePositiveRate);
+        revokedTokenIds.keySet().forEach(rebuiltFilter::add);
+        revokedTokenFilter = rebuiltFilter;
+    }
+
+    // Synchronized with the rebuild of the filter, so a token id isn't added to a filter, which is just being replaced.
+    private synchronized void rememberRevokedToken(String tokenId, long expiresAtMs) {
+        revokedTokenIds.putIfAbsent(tokenId, expiresAtMs);
+        revokedTokenFilter.add(tokenId);
+    }
+
+    private void rememberDeletedUser(UUID userId, long expiresAtMs) {
+        deletedUserExpirations.merge(userId, expiresAtMs, Math::max);
+        minimumTokenVersions.put(userId, Integer.MAX_VALUE);
+    }
+
+    private static boolean isTokenIdViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(RevokedToken.TOKEN_ID_CONSTRAINT);
+    }
+}
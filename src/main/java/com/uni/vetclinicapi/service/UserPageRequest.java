@@ -0,0 +1,100 @@
+package com.uni.vetclinicapi.service;
+
+import com.uni.vetclinicapi.presentation.exceptions.InvalidPageRequestException;
+import com.uni.vetclinicapi.util.KeysetCursor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.UUID;
+
+/**
+ * Validated request for one page of a user listing.
+ *
+ * @param size  - the number of users on the page.
+ * @param sort  - the order of the users, either "username" or "createdAt".
+ * @param after - the cursor of the previous page, null for the first page.
+ */
+@Slf4j
+record UserPageRequest(int size, String sort, KeysetCursor after) {
+
+    static final String SORT_BY_USERNAME = "username";
+
+    static final String SORT_BY_CREATED_AT = "createdAt";
+
+    private static final UUID FIRST_ID = new UUID(0, 0);
+
+    /**
+     * Validates the parameters of a page request.
+     *
+     * @param size            - the requested page size, null for the default one.
+     * @param after           - the encoded cursor of the previous page, null for the first page.
+     * @param sort            - the requested order.
+     * @param defaultPageSize - the page size, when none is requested.
+     * @param maxPageSize     - the largest allowed page size.
+     * @return - the validated request.
+     * @throws InvalidPageRequestException - if the size is out of range, the sort unknown or the cursor invalid for the sort.
+     */
+    static UserPageRequest of(Integer size, String after, String sort, int defaultPageSize, int maxPageSize) {
+        int pageSize = size != null ? size : defaultPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new InvalidPageRequestException(String.format("Page size must be between 1 and %d!", maxPageSize));
+        }
+        if (!SORT_BY_USERNAME.equals(sort) && !SORT_BY_CREATED_AT.equals(sort)) {
+            throw new InvalidPageRequestException(String.format("Users can't be sorted by %s, only by %s or %s!", sort, SORT_BY_USERNAME, SORT_BY_CREATED_AT));
+        }
+        return new UserPageRequest(pageSize, sort, after != null ? decodeCursor(after, sort) : null);
+    }
+
+    boolean isSortedByUsername() {
+        return SORT_BY_USERNAME.equals(sort);
+    }
+
+    /**
+     * @return - the username of the last user of the previous page, usernames aren't blank, so on the first page all of them sort after it.
+     */
+    String afterUsername() {
+        return after != null ? after.value() : "";
+    }
+
+    /**
+     * @return - the creation time of the last user of the previous page, the epoch on the first page.
+     */
+    Instant afterCreatedAt() {
+        return after != null ? Instant.parse(after.value()) : Instant.EPOCH;
+    }
+
+    /**
+     * @return - the id of the last user of the previous page, the lowest id on the first page.
+     */
+    UUID afterId() {
+        return after != null ? after.id() : FIRST_ID;
+    }
+
+    /**
+     * Builds the cursor of the page, which follows the one ending with the given user.
+     *
+     * @param username  - the username of the last user on the page.
+     * @param createdAt - the creation time of the last user on the page.
+     * @param id        - the id of the last user on the page.
+     * @return - the encoded cursor.
+     */
+    String nextCursor(String username, Instant createdAt, UUID id) {
+        return new KeysetCursor(sort, isSortedByUsername() ? username : createdAt.toString(), id).encode();
+    }
+
+    private static KeysetCursor decodeCursor(String after, String sort) {
+        try {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            if (SORT_BY_CREATED_AT.equals(cursor.sort())) {
+                Instant.parse(cursor.value());
+            }
+            if (sort.equals(cursor.sort())) {
+                return cursor;
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            log.warn("Attempted to fetch Users after a malformed cursor : {}", after);
+        }
+        throw new InvalidPageRequestException(String.format("Cursor %s is not a valid cursor for sort %s!", after, sort));
+    }
+}
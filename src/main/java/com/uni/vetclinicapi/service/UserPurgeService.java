@@ -0,0 +1,115 @@
+package com.uni.vetclinicapi.service;
+
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.persistance.projection.PetFacetCount;
+import com.uni.vetclinicapi.persistance.repository.PetRepository;
+import com.uni.vetclinicapi.persistance.repository.UserRepository;
+import com.uni.vetclinicapi.persistance.repository.VisitRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Deletes users together with their history - the visits they made, the visits they are the vet of, their pets and the visits of their pets.
+ * The history is deleted with a few set-based statements, instead of loading every visit and pet and deleting them one by one.
+ * Users with a very large history are purged in the background instead, in chunks of "app.userPurgeChunkSize" rows, each in its own short transaction,
+ * so that the rows aren't locked for the whole deletion.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class UserPurgeService {
+
+    private final UserRepository userRepository;
+
+    private final VisitRepository visitRepository;
+
+    private final PetRepository petRepository;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final PetFacetService petFacetService;
+
+    private final VetScheduleService vetScheduleService;
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.userPurgeChunkSize:500}")
+    private int purgeChunkSize;
+
+    /**
+     * Deletes the user with the whole history in the transaction of the caller.
+     *
+     * @param user - the managed user to delete.
+     */
+    void deleteWithHistory(User user) {
+        List<PetFacetCount> petFacetCounts = petRepository.countByUserIdBySpecieAndBreed(user.getId());
+        vetScheduleService.visitsRemoved(visitRepository.findIdsInvolvingUser(user.getId(), Pageable.unpaged()));
+        int deletedVisits = visitRepository.deleteAllInvolvingUser(user.getId());
+        int deletedPets = petRepository.deleteAllByUserId(user.getId());
+        petFacetService.petsRemoved(petFacetCounts);
+        userRepository.delete(user);
+        log.debug("Deleted {} visits and {} pets of user with id : {}.", deletedVisits, deletedPets, user.getId());
+    }
+
+    /**
+     * Deletes the history of the user chunk by chunk, and at last the user, on the application task executor.
+     * The user has to be disabled before, so that no new history is added in the meantime. If the purge fails, the user stays disabled
+     * and the deletion can be started again.
+     *
+     * @param userId - the id of the user to purge.
+     * @return - completes, when the purge is over.
+     */
+    @Async
+    public CompletableFuture<Void> purge(UUID userId) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        try {
+            long startMs = System.currentTimeMillis();
+            int deletedVisits = deleteInChunks(transactionTemplate,
+                    () -> visitRepository.findIdsInvolvingUser(userId, PageRequest.ofSize(purgeChunkSize)), visitIds -> {
+                        visitRepository.deleteAllByIdInBatch(visitIds);
+                        vetScheduleService.visitsRemoved(visitIds);
+                    });
+            // The disabled user can't add pets, so the pets counted now are the ones the chunks delete.
+            List<PetFacetCount> petFacetCounts = petRepository.countByUserIdBySpecieAndBreed(userId);
+            int deletedPets = deleteInChunks(transactionTemplate,
+                    () -> petRepository.findIdsByUserId(userId, PageRequest.ofSize(purgeChunkSize)), petRepository::deleteAllByIdInBatch);
+            petFacetService.petsRemoved(petFacetCounts);
+            // Deletes what was added after the chunks were taken as well, so the last transaction is as short as the history allows.
+            transactionTemplate.executeWithoutResult(status -> userRepository.findById(userId).ifPresent(this::deleteWithHistory));
+            tokenRevocationService.revokeAllTokensOfDeletedUser(userId);
+            log.info("User with id : {}, was purged with {} visits and {} pets in {} ms.", userId, deletedVisits, deletedPets, System.currentTimeMillis() - startMs);
+        } catch (RuntimeException e) {
+            log.error("Purge of user with id : {}, failed, the user stays disabled.", userId, e);
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private int deleteInChunks(TransactionTemplate transactionTemplate, Supplier<List<UUID>> nextChunk, Consumer<List<UUID>> deleteChunk) {
+        int deleted = 0;
+        int chunkSize;
+        do {
+            chunkSize = transactionTemplate.execute(status -> {
+                List<UUID> ids = nextChunk.get();
+                if (!ids.isEmpty()) {
+                    deleteChunk.accept(ids);
+                }
+                return ids.size();
+            });
+            deleted += chunkSize;
+        } while (chunkSize == purgeChunkSize);
+        return deleted;
+    }
+}
@@ -2,74 +2,127 @@ package com.uni.vetclinicapi.service;
 
 import com.uni.vetclinicapi.persistance.entity.Role;
 import com.uni.vetclinicapi.persistance.entity.User;
-import com.uni.vetclinicapi.persistance.repository.PetRepository;
-import com.uni.vetclinicapi.persistance.repository.RoleRepository;
 import com.uni.vetclinicapi.persistance.repository.UserRepository;
-import com.uni.vetclinicapi.persistance.repository.VisitRepository;
 import com.uni.vetclinicapi.presentation.exceptions.InvalidAuthoritiesException;
 import com.uni.vetclinicapi.presentation.exceptions.UserNotFoundException;
+import com.uni.vetclinicapi.service.dto.CursorPageDTO;
 import com.uni.vetclinicapi.service.dto.UserInfoDTO;
+import com.uni.vetclinicapi.service.mapper.UserMapper;
+import com.uni.vetclinicapi.util.ExpiringCache;
+import com.uni.vetclinicapi.util.ExpiringCacheMetrics;
+import com.uni.vetclinicapi.util.TransactionCallbacks;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
 import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
 
 /**
  * This service is used to load user by username from database.
+ * Loaded users are kept in a short-lived principal cache, which is evicted whenever a user is updated or deleted.
+ * It also stores the upgraded password hashes, which the authentication provider produces on login.
  */
 @Slf4j
 @RequiredArgsConstructor
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
-    private final RoleRepository roleRepository;
+    private final UserMapper userMapper;
 
-    private final VisitRepository visitRepository;
+    private final LoggedUserService loggedUserService;
 
-    private final PetRepository petRepository;
+    private final MeterRegistry meterRegistry;
 
-    private final ModelMapper modelMapper;
+    private final TokenRevocationService tokenRevocationService;
+
+    private final VetDirectoryService vetDirectoryService;
+
+    private final UserPurgeService userPurgeService;
+
+    private final SearchIndexService searchIndexService;
+
+    private final ResourceVersionService resourceVersionService;
+
+    @Value("${app.defaultPageSize:20}")
+    private int defaultPageSize;
+
+    @Value("${app.maxPageSize:100}")
+    private int maxPageSize;
+
+    @Value("${app.principalCacheTtlMs:300000}")
+    private long principalCacheTtlMs;
+
+    @Value("${app.principalCacheMaxSize:10000}")
+    private int principalCacheMaxSize;
+
+    private ExpiringCache<String, User> principalCache;
+
+    @PostConstruct
+    public void initPrincipalCache() {
+        principalCache = new ExpiringCache<>(principalCacheMaxSize);
+        ExpiringCacheMetrics.monitor(principalCache, "principals", meterRegistry);
+    }
 
     @Override
     public User loadUserByUsername(String username) {
+        User cachedUser = principalCache.get(username);
+        if (cachedUser != null) {
+            return cachedUser;
+        }
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException(String.format("User with username %s not found!", username)));
-        log.info("User with username : {}, was successfully fetched!", username);
+        principalCache.put(username, user, System.currentTimeMillis() + principalCacheTtlMs);
+        log.debug("User with username : {}, was successfully fetched!", username);
         return user;
     }
 
-/*    *//**
-     * Sets the current logged user to an existing pet, which isn't owned by anybody.
+    /**
+     * Stores the re-encoded password of a user, whose hash was made with an outdated encoder or cost.
+     * Called by the authentication provider after a successful login.
      *
-     * @param petId - the id of the pet.
-     * @return - FullPetDTO with all the information about the given pet.
-     *//*
-    public FullPetDTO addPetToUser(UUID petId) {
-        Pet petToAddToUser = petRepository.findById(petId).orElseThrow(() -> {
-            log.warn("Attempted to fetch pet with id : {}, which doesn't exist.", petId);
-            throw new PetNotFoundException(String.format("Pet with id : %s doesn't exist!", petId));
-        });
-        if (petToAddToUser.getUser() != null) {
-            log.warn("Attempted to add to profile pet with id : {}, which is already owned by another user.", petId);
-            throw new PetAlreadyExistsException(String.format("Attempted to add to profile Pet with id : %s, which is already owned by another user!", petId));
+     * @param userDetails - the authenticated user.
+     * @param newPassword - the password, encoded with the current encoder.
+     * @return - the user with the updated password.
+     */
+    @Override
+    @Transactional
+    public User updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException(String.format("User with username %s not found!", userDetails.getUsername())));
+        user.setPassword(newPassword);
+        User persistedUser = userRepository.save(user);
+        evictPrincipal(user.getUsername());
+        log.info("Password hash of user with username : {}, was upgraded.", user.getUsername());
+        return persistedUser;
+    }
+
+    /**
+     * Drops the cached principal of a user, so that the next authentication loads its current state.
+     * Inside a transaction the principal is dropped once more after the commit, so that an authentication running concurrently with the transaction
+     * doesn't cache the old state again.
+     *
+     * @param username - the username of the changed or removed user.
+     */
+    public void evictPrincipal(String username) {
+        principalCache.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionCallbacks.runAfterCommit(() -> principalCache.invalidate(username));
         }
-        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        petToAddToUser.setUser(user);
-        Pet updatedCar = petRepository.save(petToAddToUser);
-        log.info("Successfully added and saved owner (user) with id : {}, to pet with id : {}.", user.getId(), petId);
-        return modelMapper.map(updatedCar, FullPetDTO.class);
-    }*/
+    }
 
     /**
      * Returns currently logged-in user's info.
@@ -77,12 +130,7 @@ public class UserService implements UserDetailsService {
      * @return - UserInfoDTO with all the information about the user.
      */
     public UserInfoDTO getLoggedUserInfo() {
-        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        Set<String> role = user.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
-        UserInfoDTO userInfoDTO = modelMapper.map(user, UserInfoDTO.class);
-        userInfoDTO.setRole(role.iterator().next());
-        return userInfoDTO;
+        return userMapper.toUserInfoDTO(loggedUserService.getLoggedUser());
     }
 
     /**
@@ -97,26 +145,19 @@ public class UserService implements UserDetailsService {
         });
 
         log.info("User with details : {}, was fetched!", user);
-        return modelMapper.map(user, UserInfoDTO.class);
+        return userMapper.toUserInfoDTO(user);
     }
 
     /**
-     * Returns a list with all users.
+     * Returns a page of all users.
      *
-     * @return - List of UserInfoDTO with all the information about a user.
+     * @param size  - the number of users on the page, "app.defaultPageSize" if null.
+     * @param after - the cursor of the previous page, null for the first page.
+     * @param sort  - the order of the users, either "username" or "createdAt".
+     * @return - the UserInfoDTOs on the page and the cursor of the next page.
      */
-    public List<UserInfoDTO> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        List<UserInfoDTO> userInfoDTOList = new ArrayList<>();
-        users.forEach(user -> {
-            Set<String> role = user.getAuthorities().stream()
-                    .map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
-            UserInfoDTO userInfo = modelMapper.map(user,UserInfoDTO.class);
-            userInfo.setRole(role.iterator().next());
-            userInfoDTOList.add(userInfo);
-
-        });
-        return userInfoDTOList;
+    public CursorPageDTO<UserInfoDTO> getAllUsers(Integer size, String after, String sort) {
+        return getUserPage(UserPageRequest.of(size, after, sort, defaultPageSize, maxPageSize));
     }
 
     /**
@@ -133,11 +174,43 @@ public class UserService implements UserDetailsService {
             throw new UserNotFoundException(String.format("User with id: %s does not exist!", userId));
         });
 
-        visitRepository.deleteAllByUser(user);
-        petRepository.deleteAllByUser(user);
-        userRepository.deleteById(user.getId());
+        userPurgeService.deleteWithHistory(user);
+        evictPrincipal(user.getUsername());
+        vetDirectoryService.invalidateIfVet(user);
+        searchIndexService.removeUser(user.getId());
+        resourceVersionService.userDeleted(user);
+        tokenRevocationService.revokeAllTokensOfDeletedUser(user.getId());
         log.info("User with details : {}, was deleted!", user);
-        return modelMapper.map(user, UserInfoDTO.class);
+        return userMapper.toUserInfoDTO(user);
+    }
+
+    /**
+     * Disables a user and deletes the user's history and then the user in the background - Returns the disabled user.
+     * Meant for users with a history so large, that deleting it in a single transaction would lock the rows for too long.
+     * The tokens of the user are revoked right away.
+     *
+     * @param userId - the id of the user to purge.
+     * @return - UserInfoDTO object, containing all the information about the User entity, which is being purged.
+     */
+    public UserInfoDTO purgeUser(UUID userId) {
+        User user = userRepository.findById(userId).orElseThrow(() -> {
+            log.warn("Attempted to purge a User with id: {} , which does not exist.", userId);
+            throw new UserNotFoundException(String.format("User with id: %s does not exist!", userId));
+        });
+
+        user.setPendingDeletion(true);
+        User disabledUser = tokenRevocationService.revokeAllTokens(user);
+        evictPrincipal(disabledUser.getUsername());
+        vetDirectoryService.invalidateIfVet(disabledUser);
+        searchIndexService.removeUser(userId);
+        resourceVersionService.userDeleted(disabledUser);
+        // The visits of a vet are deleted while the purge runs, so their ETags are changed once more at its end.
+        userPurgeService.purge(userId).thenRun(() -> {
+            evictPrincipal(disabledUser.getUsername());
+            resourceVersionService.userDeleted(disabledUser);
+        });
+        log.info("User with details : {}, was disabled and is being purged!", disabledUser);
+        return userMapper.toUserInfoDTO(disabledUser);
     }
 
     /**
@@ -149,13 +222,12 @@ public class UserService implements UserDetailsService {
      * @return - UserInfoDTO object, containing all the information about the updated User entity.
      */
     public UserInfoDTO updateUserProperty(UUID userId, UserInfoDTO userInfoDTO) {
-        Optional<Role> adminRole = roleRepository.findByAuthority(Role.RoleType.ADMIN);
-        User loggedUser = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        UUID loggedUserId = loggedUserService.getLoggedUserId();
         User user = userRepository.findById(userId).orElseThrow(() -> {
             log.warn("Attempted to update a User with id: {} , which does not exist.", userId);
             throw new UserNotFoundException(String.format("User with id: %s does not exist!", userId));
         });
-        if (!loggedUser.getId().equals(userId) && !loggedUser.getAuthorities().contains(adminRole.get())) {
+        if (!loggedUserId.equals(userId) && !loggedUserService.hasAuthority(Role.RoleType.ADMIN)) {
             log.warn("Attempted to update a User with id: {} , but currently logged User does not have the authority.", userId);
             throw new InvalidAuthoritiesException(String.format("User with id: %s cannot be updated, because currently logged User does not have the authority!", userId));
         }
@@ -164,13 +236,13 @@ public class UserService implements UserDetailsService {
         updatePropertyIfNotNull(user,userInfoDTO.getPhoneNumber(),User::setPhoneNumber);
 
         User persistedUser = userRepository.save(user);
+        evictPrincipal(user.getUsername());
+        vetDirectoryService.invalidateIfVet(persistedUser);
+        searchIndexService.indexUser(persistedUser);
+        resourceVersionService.userChanged(persistedUser);
 
         log.info("User with details : {}, was updated!", user);
-        Set<String> role = user.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
-        UserInfoDTO userInfoDTOResponse = modelMapper.map(persistedUser, UserInfoDTO.class);
-        userInfoDTO.setRole(role.iterator().next());
-        return userInfoDTOResponse;
+        return userMapper.toUserInfoDTO(persistedUser);
     }
 
     private <T> void updatePropertyIfNotNull(User user, T value, BiConsumer<User, T> setter) {
@@ -180,23 +252,32 @@ public class UserService implements UserDetailsService {
     }
 
     /**
-     * Returns a list with all users with role VET.
+     * Returns a page of the users with role VET from the vet directory.
      *
-     * @return - List of UserInfoDTO with all the information about a user with role VET.
+     * @param size  - the number of users on the page, "app.defaultPageSize" if null.
+     * @param after - the cursor of the previous page, null for the first page.
+     * @param sort  - the order of the users, either "username" or "createdAt".
+     * @return - the UserInfoDTOs of the vets on the page and the cursor of the next page.
      */
-    public List<UserInfoDTO> getAllUsersWithRoleVet() {
-        Optional<Role> vetRole = roleRepository.findByAuthority(Role.RoleType.VET);
-        List<User> users = userRepository.findAll();
-        List<User> vets = users.stream().filter(user -> user.getAuthorities().contains(vetRole.get())).toList();
-        List<UserInfoDTO> userInfoDTOList = new ArrayList<>();
-        vets.forEach(user -> {
-            Set<String> role = user.getAuthorities().stream()
-                    .map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
-            UserInfoDTO userInfo = modelMapper.map(user,UserInfoDTO.class);
-            userInfo.setRole(role.iterator().next());
-            userInfoDTOList.add(userInfo);
+    public CursorPageDTO<UserInfoDTO> getAllUsersWithRoleVet(Integer size, String after, String sort) {
+        return vetDirectoryService.getVets(UserPageRequest.of(size, after, sort, defaultPageSize, maxPageSize));
+    }
 
-        });
-        return userInfoDTOList;
+    /**
+     * Fetches one page of the users by seeking to the position after the cursor.
+     * One user more than requested is fetched, to find out whether there is a next page.
+     */
+    private CursorPageDTO<UserInfoDTO> getUserPage(UserPageRequest pageRequest) {
+        Pageable limit = PageRequest.ofSize(pageRequest.size() + 1);
+        List<User> users = pageRequest.isSortedByUsername()
+                ? userRepository.findPageOrderedByUsername(pageRequest.afterUsername(), pageRequest.afterId(), limit)
+                : userRepository.findPageOrderedByCreatedAt(pageRequest.afterCreatedAt(), pageRequest.afterId(), limit);
+        String nextCursor = null;
+        if (users.size() > pageRequest.size()) {
+            users = users.subList(0, pageRequest.size());
+            User last = users.get(pageRequest.size() - 1);
+            nextCursor = pageRequest.nextCursor(last.getUsername(), last.getCreatedAt(), last.getId());
+        }
+        return new CursorPageDTO<>(users.stream().map(userMapper::toUserInfoDTO).toList(), nextCursor);
     }
 }
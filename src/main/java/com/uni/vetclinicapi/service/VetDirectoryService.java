@@ -0,0 +1,165 @@
+package com.uni.vetclinicapi.service;
+
+import com.uni.vetclinicapi.persistance.entity.Role;
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.persistance.repository.RoleRepository;
+import com.uni.vetclinicapi.persistance.repository.UserRepository;
+import com.uni.vetclinicapi.presentation.exceptions.RoleNotFoundException;
+import com.uni.vetclinicapi.service.dto.CursorPageDTO;
+import com.uni.vetclinicapi.service.dto.UserInfoDTO;
+import com.uni.vetclinicapi.service.mapper.UserMapper;
+import com.uni.vetclinicapi.util.ExpiringCache;
+import com.uni.vetclinicapi.util.ExpiringCacheMetrics;
+import com.uni.vetclinicapi.util.TransactionCallbacks;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the list of vets in memory, since it is read on every booking screen, but only changes when a vet is created, updated or deleted.
+ * The directory is loaded with a single query, which fetches the vets together with their roles, and is dropped whenever a vet changes.
+ * It also expires after "app.vetDirectoryTtlMs", to pick up changes made to the database directly.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class VetDirectoryService {
+
+    private static final String DIRECTORY_KEY = "vets";
+
+    private static final Comparator<VetEntry> BY_USERNAME = Comparator.comparing(VetEntry::username).thenComparing(VetEntry::id);
+
+    private static final Comparator<VetEntry> BY_CREATED_AT = Comparator.comparing(VetEntry::createdAt).thenComparing(VetEntry::id);
+
+    private final UserRepository userRepository;
+
+    private final RoleRepository roleRepository;
+
+    private final UserMapper userMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.vetDirectoryTtlMs:300000}")
+    private long vetDirectoryTtlMs;
+
+    private ExpiringCache<String, VetDirectory> directoryCache;
+
+    // Increased by every invalidation before the directory is dropped, so that a directory loaded before the invalidation isn't kept after it.
+    private final AtomicLong generation = new AtomicLong();
+
+    // A lock instead of a monitor, a virtual thread waiting on the query while holding a monitor would pin its carrier thread.
+    private final Lock loadLock = new ReentrantLock();
+
+    @PostConstruct
+    public void initDirectoryCache() {
+        directoryCache = new ExpiringCache<>(1);
+        ExpiringCacheMetrics.monitor(directoryCache, "vetDirectory", meterRegistry);
+    }
+
+    /**
+     * Returns a page of the vets.
+     *
+     * @param pageRequest - the validated page request.
+     * @return - the UserInfoDTOs of the vets on the page and the cursor of the next page.
+     */
+    CursorPageDTO<UserInfoDTO> getVets(UserPageRequest pageRequest) {
+        VetDirectory directory = getDirectory();
+        List<VetEntry> vets = pageRequest.isSortedByUsername() ? directory.byUsername() : directory.byCreatedAt();
+        int from = 0;
+        if (pageRequest.after() != null) {
+            VetEntry after = new VetEntry(pageRequest.afterUsername(), pageRequest.isSortedByUsername() ? null : pageRequest.afterCreatedAt(), pageRequest.afterId(), null);
+            int index = Collections.binarySearch(vets, after, pageRequest.isSortedByUsername() ? BY_USERNAME : BY_CREATED_AT);
+            // The vet of the cursor may have been removed in the meantime, then the page starts at its insertion point.
+            from = index >= 0 ? index + 1 : -index - 1;
+        }
+        int to = Math.min(from + pageRequest.size(), vets.size());
+        List<VetEntry> page = vets.subList(from, to);
+        String nextCursor = null;
+        if (to < vets.size()) {
+            VetEntry last = page.get(page.size() - 1);
+            nextCursor = pageRequest.nextCursor(last.username(), last.createdAt(), last.id());
+        }
+        return new CursorPageDTO<>(page.stream().map(VetEntry::userInfo).toList(), nextCursor);
+    }
+
+    /**
+     * Returns all vets, ordered by username.
+     *
+     * @return - the UserInfoDTOs of the vets.
+     */
+    List<UserInfoDTO> getAllVets() {
+        return getDirectory().byUsername().stream().map(VetEntry::userInfo).toList();
+    }
+
+    /**
+     * Drops the directory if the given user is a vet, so that the next read loads the current vets.
+     * Inside a transaction the directory is dropped once more after the commit, so that a read running concurrently with the transaction doesn't keep the old state.
+     *
+     * @param user - the created, updated or deleted user.
+     */
+    public void invalidateIfVet(User user) {
+        if (user.getAuthorities().stream().noneMatch(role -> role.getAuthority().equals(Role.RoleType.VET.name()))) {
+            return;
+        }
+        invalidate();
+        TransactionCallbacks.runAfterCommit(this::invalidate);
+    }
+
+    private void invalidate() {
+        generation.incrementAndGet();
+        directoryCache.invalidate(DIRECTORY_KEY);
+    }
+
+    private VetDirectory getDirectory() {
+        VetDirectory directory = directoryCache.get(DIRECTORY_KEY);
+        if (directory != null) {
+            return directory;
+        }
+        // Only one request loads the directory, the others wait for it, instead of running the same query.
+        loadLock.lock();
+        try {
+            directory = directoryCache.get(DIRECTORY_KEY);
+            if (directory != null) {
+                return directory;
+            }
+            long loadedGeneration = generation.get();
+            directory = loadDirectory();
+            directoryCache.put(DIRECTORY_KEY, directory, System.currentTimeMillis() + vetDirectoryTtlMs);
+            // A vet changed while loading, the loaded directory may already be outdated.
+            if (generation.get() != loadedGeneration) {
+                directoryCache.invalidate(DIRECTORY_KEY);
+            }
+            return directory;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private VetDirectory loadDirectory() {
+        Role vetRole = roleRepository.findByAuthority(Role.RoleType.VET).orElseThrow(() -> new RoleNotFoundException("Role with such authority doesn't exist!"));
+        List<VetEntry> vets = userRepository.findAllByAuthoritiesContaining(vetRole).stream()
+                .filter(user -> !user.isPendingDeletion())
+                .map(user -> new VetEntry(user.getUsername(), user.getCreatedAt(), user.getId(), userMapper.toUserInfoDTO(user)))
+                .toList();
+        log.debug("Vet directory with {} vets was loaded.", vets.size());
+        return new VetDirectory(vets.stream().sorted(BY_USERNAME).toList(), vets.stream().sorted(BY_CREATED_AT).toList());
+    }
+
+    private record VetEntry(String username, Instant createdAt, UUID id, UserInfoDTO userInfo) {
+    }
+
+    private record VetDirectory(List<VetEntry> byUsername, List<VetEntry> byCreatedAt) {
+    }
+}
@@ -0,0 +1,238 @@
+package com.uni.vetclinicapi.service;
+
+import com.uni.vetclinicapi.persistance.entity.Visit;
+import com.uni.vetclinicapi.persistance.projection.VisitSlot;
+import com.uni.vetclinicapi.persistance.repository.VisitRepository;
+import com.uni.vetclinicapi.service.dto.AvailableSlotDTO;
+import com.uni.vetclinicapi.service.dto.UserInfoDTO;
+import com.uni.vetclinicapi.util.IntervalIndex;
+import com.uni.vetclinicapi.util.StripedLocks;
+import com.uni.vetclinicapi.util.TransactionCallbacks;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the schedule of every vet in memory - the visits of each vet on each day, as intervals of "app.visitDurationMinutes" from their time,
+ * so a new visit is checked against the visits of its vet, which it overlaps, with a lookup instead of a query.
+ * Each day of a vet is also split into slots of the same length from midnight, with one bit per slot, which is set while a visit overlaps the slot,
+ * so the free slots of many vets over many days are found by scanning the bits.
+ * Only the visits from today on are kept, as no visit can be booked in the past. They are loaded on start up, before the web server accepts
+ * requests, and then updated by the services after every committed change of a visit.
+ * Bookings of the same vet on the same day are made one at a time under a striped lock, so a check against the schedule isn't overtaken by a concurrent booking.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class VetScheduleService implements SmartInitializingSingleton {
+
+    private final VisitRepository visitRepository;
+
+    @Value("${app.visitDurationMinutes:30}")
+    private int visitDurationMinutes;
+
+    @Value("${app.clinicOpeningTime:08:00}")
+    private String clinicOpeningTime;
+
+    @Value("${app.clinicClosingTime:18:00}")
+    private String clinicClosingTime;
+
+    @Value("${app.vetScheduleLockStripes:64}")
+    private int lockStripes;
+
+    private StripedLocks vetDayLocks;
+
+    private final IntervalIndex<VetDay, UUID> schedules = new IntervalIndex<>();
+
+    // Finds the interval of a visit, which is removed by its id only.
+    private final Map<UUID, Booking> bookings = new ConcurrentHashMap<>();
+
+    // Replaced on every change instead of changed in place, so a scan reads the bits without a lock. A day without visits has no bits.
+    private final Map<VetDay, BitSet> takenSlots = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void initVetDayLocks() {
+        vetDayLocks = new StripedLocks(lockStripes);
+    }
+
+    /**
+     * Loads the schedules once all beans are created, after the initial data is in place, but before the web server accepts requests.
+     * So no visit is booked against an empty schedule, and no visit is put into the schedule both by the load and by its booking.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        long startMs = System.currentTimeMillis();
+        List<VisitSlot> visitSlots = visitRepository.findSlotsFrom(Date.valueOf(LocalDate.now()));
+        visitSlots.forEach(visitSlot -> put(visitSlot.getId(), visitSlot.getVetId(), visitSlot.getDate(), visitSlot.getTime()));
+        log.info("Vet schedules with {} visits were loaded in {} ms.", visitSlots.size(), System.currentTimeMillis() - startMs);
+    }
+
+    /**
+     * Checks whether the vet has a visit, which overlaps a visit at the given date and time.
+     *
+     * @param vetId - the id of the vet.
+     * @param date  - the date of the visit.
+     * @param time  - the time of the visit.
+     * @return - true, if the vet is not free at that time.
+     */
+    public boolean isBooked(UUID vetId, Date date, Time time) {
+        long start = time.toLocalTime().toSecondOfDay();
+        return schedules.overlaps(new VetDay(vetId, date.toLocalDate()), start, start + visitDurationMinutes * 60L);
+    }
+
+    /**
+     * Runs a booking while no other booking of the vet on the same day runs in this instance.
+     * The booking has to commit the visit and add it to the schedule before it returns, so that the next booking sees it.
+     *
+     * @param vetId   - the id of the vet.
+     * @param date    - the date of the visit.
+     * @param booking - checks the schedule and saves the visit.
+     * @param <T>     - the type of the result.
+     * @return - the result of the booking.
+     */
+    public <T> T callLocked(UUID vetId, Date date, Supplier<T> booking) {
+        return vetDayLocks.callLocked(new VetDay(vetId, date.toLocalDate()), booking);
+    }
+
+    /**
+     * Finds the free slots of the vets within the opening hours of the clinic, from the earliest one on.
+     * Slots of today, which have already started, are skipped.
+     *
+     * @param vets  - the vets, whose slots are searched, slots at the same time are ordered as the vets.
+     * @param from  - the first day of the search.
+     * @param to    - the last day of the search.
+     * @param limit - the maximum number of returned slots.
+     * @return - the free slots, ordered by date and time.
+     */
+    public List<AvailableSlotDTO> findFreeSlots(List<UserInfoDTO> vets, LocalDate from, LocalDate to, int limit) {
+        int slotSeconds = visitDurationMinutes * 60;
+        // Only the slots, which start and end within the opening hours, are free.
+        int firstSlot = (LocalTime.parse(clinicOpeningTime).toSecondOfDay() + slotSeconds - 1) / slotSeconds;
+        int endSlot = LocalTime.parse(clinicClosingTime).toSecondOfDay() / slotSeconds;
+        LocalDateTime now = LocalDateTime.now();
+        List<AvailableSlotDTO> freeSlots = new ArrayList<>();
+        BitSet[] vetTakenSlots = new BitSet[vets.size()];
+        for (LocalDate date = from; !date.isAfter(to) && freeSlots.size() < limit; date = date.plusDays(1)) {
+            for (int i = 0; i < vets.size(); i++) {
+                vetTakenSlots[i] = takenSlots.get(new VetDay(vets.get(i).getUserId(), date));
+            }
+            for (int slot = firstSlot; slot < endSlot && freeSlots.size() < limit; slot++) {
+                LocalTime time = LocalTime.ofSecondOfDay((long) slot * slotSeconds);
+                if (!date.atTime(time).isAfter(now)) {
+                    continue;
+                }
+                for (int i = 0; i < vets.size() && freeSlots.size() < limit; i++) {
+                    if (vetTakenSlots[i] == null || !vetTakenSlots[i].get(slot)) {
+                        UserInfoDTO vet = vets.get(i);
+                        freeSlots.add(new AvailableSlotDTO(Date.valueOf(date), Time.valueOf(time), vet.getUserId(), vet.getFName(), vet.getLName(), vet.getVetType()));
+                    }
+                }
+            }
+        }
+        return freeSlots;
+    }
+
+    /**
+     * Adds the visit to the schedule of its vet, once the current transaction is committed.
+     *
+     * @param visit - the created visit.
+     */
+    public void visitAdded(Visit visit) {
+        if (visit.getVet() == null) {
+            return;
+        }
+        UUID vetId = visit.getVet().getId();
+        TransactionCallbacks.runAfterCommit(() -> put(visit.getId(), vetId, visit.getDate(), visit.getTime()));
+    }
+
+    /**
+     * Removes the visits from the schedules, once the current transaction is committed.
+     *
+     * @param visitIds - the ids of the deleted visits, past visits and visits, which aren't in the schedules, are skipped.
+     */
+    public void visitsRemoved(Collection<UUID> visitIds) {
+        List<UUID> removedIds = List.copyOf(visitIds);
+        TransactionCallbacks.runAfterCommit(() -> removedIds.forEach(this::remove));
+    }
+
+    /**
+     * Drops the days, which have passed, shortly after midnight.
+     */
+    @Scheduled(cron = "${app.vetSchedulePruneCron:0 5 0 * * *}")
+    public void dropPastDays() {
+        LocalDate today = LocalDate.now();
+        bookings.values().removeIf(booking -> booking.vetDay().date().isBefore(today));
+        schedules.removeKeys(vetDay -> vetDay.date().isBefore(today));
+        takenSlots.keySet().removeIf(vetDay -> vetDay.date().isBefore(today));
+    }
+
+    // Puts a visit only once, a visit, which is put again, replaces its earlier interval.
+    private void put(UUID visitId, UUID vetId, Date date, Time time) {
+        long start = time.toLocalTime().toSecondOfDay();
+        Booking booking = new Booking(new VetDay(vetId, date.toLocalDate()), start, start + visitDurationMinutes * 60L);
+        if (booking.equals(bookings.get(visitId))) {
+            return;
+        }
+        remove(visitId);
+        bookings.put(visitId, booking);
+        // The visit is already saved, so it is added even if it overlaps, like the visits booked before the schedules were kept.
+        schedules.add(booking.vetDay(), booking.start(), booking.end(), visitId);
+        takenSlots.compute(booking.vetDay(), (vetDay, bits) -> {
+            BitSet changedBits = bits != null ? (BitSet) bits.clone() : new BitSet();
+            changedBits.set(firstSlotOf(booking), endSlotOf(booking));
+            return changedBits;
+        });
+    }
+
+    private void remove(UUID visitId) {
+        Booking booking = bookings.remove(visitId);
+        if (booking == null) {
+            return;
+        }
+        schedules.remove(booking.vetDay(), booking.start(), booking.end(), visitId);
+        // A slot stays taken, while another visit still overlaps it.
+        takenSlots.computeIfPresent(booking.vetDay(), (vetDay, bits) -> {
+            BitSet changedBits = (BitSet) bits.clone();
+            long slotSeconds = visitDurationMinutes * 60L;
+            for (int slot = firstSlotOf(booking); slot < endSlotOf(booking); slot++) {
+                if (!schedules.overlaps(vetDay, slot * slotSeconds, (slot + 1) * slotSeconds)) {
+                    changedBits.clear(slot);
+                }
+            }
+            return changedBits.isEmpty() ? null : changedBits;
+        });
+    }
+
+    private int firstSlotOf(Booking booking) {
+        return (int) (booking.start() / (visitDurationMinutes * 60L));
+    }
+
+    private int endSlotOf(Booking booking) {
+        long slotSeconds = visitDurationMinutes * 60L;
+        return (int) ((booking.end() + slotSeconds - 1) / slotSeconds);
+    }
+
+    private record VetDay(UUID vetId, LocalDate date) {
+    }
+
+    private record Booking(VetDay vetDay, long start, long end) {
+    }
+}
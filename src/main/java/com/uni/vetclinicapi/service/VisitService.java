@@ -1,24 +1,42 @@
 package com.uni.vetclinicapi.service;
 
 import com.uni.vetclinicapi.persistance.entity.Pet;
+import com.uni.vetclinicapi.persistance.entity.Role;
 import com.uni.vetclinicapi.persistance.entity.User;
 import com.uni.vetclinicapi.persistance.entity.Visit;
 import com.uni.vetclinicapi.persistance.repository.PetRepository;
 import com.uni.vetclinicapi.persistance.repository.UserRepository;
 import com.uni.vetclinicapi.persistance.repository.VisitRepository;
+import com.uni.vetclinicapi.presentation.exceptions.InvalidDateRangeException;
+import com.uni.vetclinicapi.presentation.exceptions.InvalidPageRequestException;
 import com.uni.vetclinicapi.presentation.exceptions.InvalidVisitDateException;
 import com.uni.vetclinicapi.presentation.exceptions.PetNotFoundException;
 import com.uni.vetclinicapi.presentation.exceptions.VetNotFoundException;
+import com.uni.vetclinicapi.service.dto.AvailableSlotDTO;
+import com.uni.vetclinicapi.service.dto.CursorPageDTO;
 import com.uni.vetclinicapi.service.dto.FullVisitDTO;
+import com.uni.vetclinicapi.service.dto.PetTimelineEntryDTO;
+import com.uni.vetclinicapi.service.dto.UserInfoDTO;
 import com.uni.vetclinicapi.service.dto.VisitDTO;
+import com.uni.vetclinicapi.service.dto.VisitViewDTO;
+import com.uni.vetclinicapi.service.mapper.VisitMapper;
+import com.uni.vetclinicapi.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.sql.Date;
+import java.sql.Time;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 
 /**
@@ -30,16 +48,42 @@ import java.util.List;
 @Service
 public class VisitService {
 
+    private static final String SORT_BY_DATE = "date";
+
+    // The first page of a timeline starts before the end of time, so every visit sorts before it.
+    private static final Date TIMELINE_START_DATE = Date.valueOf("9999-12-31");
+
+    private static final Time TIMELINE_START_TIME = Time.valueOf("23:59:59");
+
+    private static final UUID TIMELINE_START_ID = new UUID(0, 0);
+
     private final PetRepository petRepository;
 
     private final UserRepository userRepository;
 
     private final VisitRepository visitRepository;
 
-    private final ModelMapper modelMapper;
+    private final VisitMapper visitMapper;
+
+    private final LoggedUserService loggedUserService;
+
+    private final ResourceVersionService resourceVersionService;
+
+    private final VetScheduleService vetScheduleService;
+
+    private final VetDirectoryService vetDirectoryService;
+
+    @Value("${app.defaultPageSize:20}")
+    private int defaultPageSize;
+
+    @Value("${app.maxPageSize:100}")
+    private int maxPageSize;
+
+    @Value("${app.availabilityMaxDays:31}")
+    private int availabilityMaxDays;
 
     public FullVisitDTO addVisit(VisitDTO visitDTO) {
-        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        User user = loggedUserService.getLoggedUser();
         Pet pet = petRepository.findById(visitDTO.getPet().getId()).orElseThrow(() -> {
             log.warn("Attempted to get a Pet with id: {} for User with id: {}, which does not exist.",visitDTO.getPet().getId(),user.getId());
             throw new PetNotFoundException(String.format("Pet with id: %s and owner: %s does not exist!", visitDTO.getPet().getId(),user.getUsername()));
@@ -50,30 +94,153 @@ public class VisitService {
             throw new VetNotFoundException(String.format("Vet with id: %s does not exist!", visitDTO.getVet().getId()));
         });
 
-        if (visitDTO.getDate().toLocalDate().isBefore(LocalDate.now()) || visitRepository.findByDateAndTime(visitDTO.getDate(),visitDTO.getTime()).isPresent()) {
-            log.warn("Attempted to create a Visit with date: {} and hour: {} which already exists or date and and hour is invalid.", visitDTO.getDate(),visitDTO.getTime());
-            throw new InvalidVisitDateException(String.format("Visit with date: %s and hour: %s already exists or date and hour invalid!",visitDTO.getDate(),visitDTO.getTime()));
+        if (visitDTO.getDate().toLocalDate().isBefore(LocalDate.now())) {
+            log.warn("Attempted to create a Visit with date: {} and hour: {} which is in the past.", visitDTO.getDate(),visitDTO.getTime());
+            throw new InvalidVisitDateException(String.format("Visit with date: %s and hour: %s is in the past!",visitDTO.getDate(),visitDTO.getTime()));
         }
 
-        Visit visit = modelMapper.map(visitDTO, Visit.class);
+        Visit visit = visitMapper.toVisit(visitDTO);
         visit.setPet(pet);
         visit.setVet(vet);
         visit.setUser(user);
-        Visit persistedVisit = visitRepository.save(visit);
+        // The visit is committed by the save, before the lock is released.
+        Visit persistedVisit = vetScheduleService.callLocked(vet.getId(), visit.getDate(), () -> {
+            if (vetScheduleService.isBooked(vet.getId(), visit.getDate(), visit.getTime())) {
+                throw vetAlreadyBooked(visit);
+            }
+            Visit savedVisit = saveUniquelyTimed(visit);
+            vetScheduleService.visitAdded(savedVisit);
+            return savedVisit;
+        });
+        resourceVersionService.visitsChanged(user.getId());
         log.warn("Visit by User: {} with pet: {} and vet: {} was created successfully",user.getId(),pet.getId(),vet.getId());
-        return modelMapper.map(persistedVisit, FullVisitDTO.class);
+        return visitMapper.toFullVisitDTO(persistedVisit);
+    }
+
+    /**
+     * Saves the visit right away, so that a time taken by a booking, which the schedule of this instance doesn't see,
+     * fails the unique constraint here.
+     *
+     * @param visit - the created visit.
+     * @return - the saved visit.
+     */
+    private Visit saveUniquelyTimed(Visit visit) {
+        try {
+            return visitRepository.saveAndFlush(visit);
+        } catch (DataIntegrityViolationException e) {
+            if (isVetDateTimeViolation(e)) {
+                throw vetAlreadyBooked(visit);
+            }
+            throw e;
+        }
+    }
+
+    private InvalidVisitDateException vetAlreadyBooked(Visit visit) {
+        log.warn("Attempted to create a Visit with date: {} and hour: {} which overlaps another visit of Vet with id: {}.", visit.getDate(), visit.getTime(), visit.getVet().getId());
+        return new InvalidVisitDateException(String.format("Vet with id: %s already has a visit at date: %s and hour: %s!", visit.getVet().getId(), visit.getDate(), visit.getTime()));
     }
 
-    public List<FullVisitDTO> findAllVisitsForUser() {
-        User user = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        List<FullVisitDTO> fullVisitDTOList = visitRepository.findAllByUser(user)
-                .stream()
-                .map(visit -> modelMapper.map(visit, FullVisitDTO.class)).toList();
-        if (fullVisitDTOList.isEmpty()) {
+    private static boolean isVetDateTimeViolation(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(Visit.VET_DATE_TIME_CONSTRAINT);
+    }
+
+    public List<VisitViewDTO> findAllVisitsForUser() {
+        UUID userId = loggedUserService.getLoggedUserId();
+        List<VisitViewDTO> visitViews = visitRepository.findAllViewsByUserId(userId);
+        if (visitViews.isEmpty()) {
             log.info("There are no Visits present in database!");
         } else {
-            log.info("{} Visits for user with id : {}, have been fetched from database.", fullVisitDTOList.size(), user.getId());
+            log.info("{} Visits for user with id : {}, have been fetched from database.", visitViews.size(), userId);
+        }
+        return visitViews;
+    }
+
+    /**
+     * Finds the free slots of the vets over a range of days, from the earliest one on, without a query.
+     *
+     * @param from    - the first day, today if null.
+     * @param to      - the last day, the same as the first day if null.
+     * @param vetIds  - the ids of the searched vets, all vets if null or empty.
+     * @param vetType - only vets of this type are searched, ignoring case, any type if null.
+     * @param size    - the maximum number of slots, "app.defaultPageSize" if null.
+     * @return - the free slots, ordered by date and time.
+     */
+    public List<AvailableSlotDTO> findAvailableSlots(LocalDate from, LocalDate to, List<UUID> vetIds, String vetType, Integer size) {
+        int limit = size != null ? size : defaultPageSize;
+        if (limit < 1 || limit > maxPageSize) {
+            throw new InvalidPageRequestException(String.format("Page size must be between 1 and %d!", maxPageSize));
+        }
+        LocalDate firstDay = from != null ? from : LocalDate.now();
+        LocalDate lastDay = to != null ? to : firstDay;
+        if (firstDay.isBefore(LocalDate.now()) || lastDay.isBefore(firstDay) || firstDay.plusDays(availabilityMaxDays).isBefore(lastDay.plusDays(1))) {
+            throw new InvalidDateRangeException(String.format("Date range from: %s to: %s must not start in the past, end before it starts or span more than %d days!", firstDay, lastDay, availabilityMaxDays));
+        }
+        List<UserInfoDTO> vets = vetDirectoryService.getAllVets();
+        if (vetIds != null && !vetIds.isEmpty()) {
+            Set<UUID> knownVetIds = vets.stream().map(UserInfoDTO::getUserId).collect(Collectors.toSet());
+            vetIds.stream().filter(vetId -> !knownVetIds.contains(vetId)).findFirst().ifPresent(vetId -> {
+                log.warn("Attempted to find the free slots of a Vet(User) with id: {} which does not exist.", vetId);
+                throw new VetNotFoundException(String.format("Vet with id: %s does not exist!", vetId));
+            });
+            vets = vets.stream().filter(vet -> vetIds.contains(vet.getUserId())).toList();
+        }
+        if (vetType != null) {
+            vets = vets.stream().filter(vet -> vetType.equalsIgnoreCase(vet.getVetType())).toList();
+        }
+        List<AvailableSlotDTO> freeSlots = vetScheduleService.findFreeSlots(vets, firstDay, lastDay, limit);
+        log.info("{} free slots of {} Vets from {} to {} have been found.", freeSlots.size(), vets.size(), firstDay, lastDay);
+        return freeSlots;
+    }
+
+    /**
+     * Fetches a page of the medical timeline of a pet - its visits from the latest one back, each with the vet, who saw the pet.
+     * Customers see only the timelines of their own pets, vets and admins the timeline of any pet.
+     *
+     * @param petId - the id of the pet.
+     * @param size  - number of visits on the page, "app.defaultPageSize" if null.
+     * @param after - cursor of the previous page, null for the first page.
+     * @return - the visits on the page and the cursor of the next page.
+     */
+    public CursorPageDTO<PetTimelineEntryDTO> getPetTimeline(UUID petId, Integer size, String after) {
+        int pageSize = size != null ? size : defaultPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new InvalidPageRequestException(String.format("Page size must be between 1 and %d!", maxPageSize));
+        }
+        boolean staff = loggedUserService.hasAuthority(Role.RoleType.VET) || loggedUserService.hasAuthority(Role.RoleType.ADMIN);
+        boolean visible = staff ? petRepository.existsById(petId) : petRepository.existsByIdAndUserId(petId, loggedUserService.getLoggedUserId());
+        if (!visible) {
+            log.warn("Attempted to fetch the timeline of a Pet with id: {}, which does not exist or isn't owned by the logged user.", petId);
+            throw new PetNotFoundException(String.format("Pet with id: %s does not exist!", petId));
+        }
+        KeysetCursor cursor = after != null ? decodeTimelineCursor(after) : null;
+        Date afterDate = cursor != null ? Date.valueOf(cursor.value().substring(0, cursor.value().indexOf(' '))) : TIMELINE_START_DATE;
+        Time afterTime = cursor != null ? Time.valueOf(cursor.value().substring(cursor.value().indexOf(' ') + 1)) : TIMELINE_START_TIME;
+        UUID afterId = cursor != null ? cursor.id() : TIMELINE_START_ID;
+        // One visit more than requested is fetched, to find out whether there is a next page.
+        List<Visit> visits = visitRepository.findTimelinePage(petId, afterDate, afterTime, afterId, PageRequest.ofSize(pageSize + 1));
+        String nextCursor = null;
+        if (visits.size() > pageSize) {
+            visits = visits.subList(0, pageSize);
+            Visit last = visits.get(pageSize - 1);
+            nextCursor = new KeysetCursor(SORT_BY_DATE, last.getDate() + " " + last.getTime(), last.getId()).encode();
+        }
+        log.info("{} Visits of the timeline of Pet with id : {}, have been fetched from database.", visits.size(), petId);
+        return new CursorPageDTO<>(visits.stream().map(visitMapper::toPetTimelineEntryDTO).toList(), nextCursor);
+    }
+
+    private static KeysetCursor decodeTimelineCursor(String after) {
+        try {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            int separator = cursor.value().indexOf(' ');
+            if (SORT_BY_DATE.equals(cursor.sort()) && separator > 0) {
+                Date.valueOf(cursor.value().substring(0, separator));
+                Time.valueOf(cursor.value().substring(separator + 1));
+                return cursor;
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("Attempted to fetch Visits after a malformed cursor : {}", after);
         }
-        return fullVisitDTOList;
+        throw new InvalidPageRequestException(String.format("Cursor %s is not a valid cursor of a timeline!", after));
     }
 }
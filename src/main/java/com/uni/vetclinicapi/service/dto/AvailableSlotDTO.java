@@ -0,0 +1,38 @@
+package com.uni.vetclinicapi.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.UUID;
+
+/**
+ * This class holds a free slot of a vet, at which a visit can be booked.
+ */
+@Schema(description = "This DTO holds a free slot of a Vet, at which a Visit can be booked.", allowableValues = {"date", "time", "vetId", "vetFirstName", "vetLastName", "vetType"})
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class AvailableSlotDTO {
+
+    @Schema(description = "Date of the slot.", example = "2007-12-03")
+    private Date date;
+
+    @Schema(description = "Start time of the slot.", example = "15:30")
+    private Time time;
+
+    @Schema(description = "Id of the Vet.")
+    private UUID vetId;
+
+    @Schema(description = "First name of the Vet.", example = "Martin")
+    private String vetFirstName;
+
+    @Schema(description = "Last name of the Vet.", example = "Petrov")
+    private String vetLastName;
+
+    @Schema(description = "Type of the Vet.", example = "Surgeon")
+    private String vetType;
+}
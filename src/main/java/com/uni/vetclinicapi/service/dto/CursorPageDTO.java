@@ -0,0 +1,26 @@
+package com.uni.vetclinicapi.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * This class holds one page of a keyset paginated listing.
+ *
+ * @param <T> - the type of the listed items.
+ */
+@Schema(description = "This DTO holds one page of a listing and the cursor of the next page.", allowableValues = {"items", "nextCursor"})
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class CursorPageDTO<T> {
+
+    @Schema(description = "The items of the page")
+    private List<T> items;
+
+    @Schema(description = "The cursor, which fetches the page after this one, null on the last page")
+    private String nextCursor;
+}
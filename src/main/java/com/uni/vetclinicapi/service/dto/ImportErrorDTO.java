@@ -0,0 +1,25 @@
+package com.uni.vetclinicapi.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class holds the reason, why a row of a bulk import was skipped.
+ */
+@Schema(description = "This DTO holds the reason, why a row of a bulk import was skipped.", allowableValues = {"line", "username", "message"})
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ImportErrorDTO {
+
+    @Schema(description = "The line of the file, on which the row starts, counted from 1")
+    private long line;
+
+    @Schema(description = "The username of the row, if it could be read")
+    private String username;
+
+    @Schema(description = "What is wrong with the row")
+    private String message;
+}
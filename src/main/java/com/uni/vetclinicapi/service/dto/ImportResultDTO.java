@@ -0,0 +1,31 @@
+package com.uni.vetclinicapi.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds the outcome of a bulk import.
+ */
+@Schema(description = "This DTO holds the outcome of a bulk import.", allowableValues = {"importedUsers", "importedPets", "failedRows", "errors"})
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ImportResultDTO {
+
+    @Schema(description = "The number of imported users")
+    private long importedUsers;
+
+    @Schema(description = "The number of imported pets")
+    private long importedPets;
+
+    @Schema(description = "The number of skipped rows")
+    private long failedRows;
+
+    @Schema(description = "The reasons of the skipped rows, at most \"app.importMaxReportedErrors\" of them")
+    private List<ImportErrorDTO> errors = new ArrayList<>();
+}
@@ -0,0 +1,57 @@
+package com.uni.vetclinicapi.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class holds one customer of a bulk import, with the customer's pets.
+ * The constraints are the ones of a registration.
+ */
+@Schema(description = "This DTO holds one customer of a bulk import with the customer's pets.", allowableValues = {"username", "password", "email", "firstName", "lastName", "phoneNumber", "pets"})
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class ImportUserDTO {
+
+    @Schema(description = "The username of the user")
+    @NotBlank(message = "Username is required!")
+    @Size(max = 20, min = 5)
+    private String username;
+
+    @Schema(description = "The password of the user")
+    @NotBlank(message = "Password is required!")
+    @Size(max = 20, min = 5)
+    private String password;
+
+    @Schema(description = "The email of the user")
+    @NotBlank(message = "Email is required!")
+    @Email
+    @Size(max = 30, min = 10)
+    private String email;
+
+    @Schema(description = "The first name of the user")
+    @NotBlank
+    @Size(min = 3, max = 15)
+    private String firstName;
+
+    @Schema(description = "The last name of the user")
+    @NotBlank
+    @Size(min = 3, max = 15)
+    private String lastName;
+
+    @Schema(description = "The phone number of the user")
+    @Size(min = 8, max = 15)
+    private String phoneNumber;
+
+    @Schema(description = "The pets of the user")
+    private List<@Valid PetDTO> pets = new ArrayList<>();
+}
@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 /**
  * This class contains the jwt token.
  */
-@Schema(description = "This DTO holds the JWT Token throughout the requests.", allowableValues = {"token"})
+@Schema(description = "This DTO holds the JWT Token throughout the requests.", allowableValues = {"token", "role", "refreshToken"})
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
@@ -19,4 +19,7 @@ public class JwtResponseDTO {
 
     @Schema(name = "role", description = "The user's role")
     private String role;
+
+    @Schema(name = "refreshToken", description = "The long-lived token, which is exchanged for new tokens once the JWT token expires")
+    private String refreshToken;
 }
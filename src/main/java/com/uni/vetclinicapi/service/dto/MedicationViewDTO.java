@@ -0,0 +1,28 @@
+package com.uni.vetclinicapi.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+/**
+ * Read-only view of a Medication for the medication listing, with the same properties as the FullMedicationDTO.
+ * It is an interface, which MedicationRepository fills straight from a query, without loading a Medication entity.
+ */
+@Schema(description = "Read-only view of a Medication, used by the medication listing.")
+public interface MedicationViewDTO {
+
+    @Schema(description = "Id of the Medication.", example = "480d68e4-3f13-48f0-a6ec-c94b4d0d7683")
+    UUID getId();
+
+    @Schema(description = "Name of the medication.")
+    String getName();
+
+    @Schema(description = "Type of the medication.")
+    String getType();
+
+    @Schema(description = "Quantity of the medication.")
+    int getQuantity();
+
+    @Schema(description = "Description of the medication")
+    String getDescription();
+}
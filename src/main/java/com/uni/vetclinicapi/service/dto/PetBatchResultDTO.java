@@ -0,0 +1,28 @@
+package com.uni.vetclinicapi.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class holds the outcome of one Pet of a batch creation.
+ */
+@Schema(description = "This DTO holds the outcome of one Pet of a batch creation.", allowableValues = {"index", "status", "pet", "message"})
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PetBatchResultDTO {
+
+    @Schema(description = "The position of the Pet in the request, counted from 0")
+    private int index;
+
+    @Schema(description = "The status code the Pet would get if created on its own - 201, 400 or 409", example = "201")
+    private int status;
+
+    @Schema(description = "The created Pet, only with status 201")
+    private FullPetDTO pet;
+
+    @Schema(description = "Why the Pet wasn't created, only with status 400 or 409")
+    private String message;
+}
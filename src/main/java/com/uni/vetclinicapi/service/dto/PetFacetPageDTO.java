@@ -0,0 +1,34 @@
+package com.uni.vetclinicapi.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class holds one page of the pets of a specie and breed search, with the number of pets of every specie and breed.
+ */
+@Schema(description = "This DTO holds one page of a Pet search by specie and breed and the facet counts.", allowableValues = {"items", "nextCursor", "total", "species", "breeds"})
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PetFacetPageDTO {
+
+    @Schema(description = "The pets of the page")
+    private List<PetSummaryDTO> items;
+
+    @Schema(description = "The cursor, which fetches the page after this one, null on the last page")
+    private String nextCursor;
+
+    @Schema(description = "The number of pets matching both the specie and the breed")
+    private long total;
+
+    @Schema(description = "The number of pets of every specie, among the pets of the searched breed")
+    private Map<String, Long> species;
+
+    @Schema(description = "The number of pets of every breed, among the pets of the searched specie")
+    private Map<String, Long> breeds;
+}
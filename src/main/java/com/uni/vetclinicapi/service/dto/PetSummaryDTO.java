@@ -0,0 +1,33 @@
+package com.uni.vetclinicapi.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * This class holds the information about a Pet, which is shown in the search results, with the owner given by id.
+ */
+@Schema(description = "This DTO holds the information about a Pet found by a search.", allowableValues = {"id", "name", "specie", "breed", "ownerId"})
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PetSummaryDTO {
+
+    @Schema(description = "Id of the Pet.", example = "480d68e4-3f13-48f0-a6ec-c94b4d0d7683")
+    private UUID id;
+
+    @Schema(description = "Name of the pet.", example = "Charlie")
+    private String name;
+
+    @Schema(description = "Specie of the pet.", example = "Dog")
+    private String specie;
+
+    @Schema(description = "Breed of the specie.", example = "German shepard")
+    private String breed;
+
+    @Schema(description = "Id of the User that owns the pet.")
+    private UUID ownerId;
+}
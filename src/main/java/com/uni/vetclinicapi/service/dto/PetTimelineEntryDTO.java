@@ -0,0 +1,47 @@
+package com.uni.vetclinicapi.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.UUID;
+
+/**
+ * This class holds one visit of a pet's medical timeline, with the vet, who saw the pet.
+ */
+@Schema(description = "This DTO holds one Visit of a Pet's medical timeline.", allowableValues = {"id", "date", "time", "approved", "description", "vetId", "vetFirstName", "vetLastName", "vetType"})
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class PetTimelineEntryDTO {
+
+    @Schema(description = "Id of the Visit.", example = "480d68e4-3f13-48f0-a6ec-c94b4d0d7683")
+    private UUID id;
+
+    @Schema(description = "Date of the visit.", example = "2007-12-03")
+    private Date date;
+
+    @Schema(description = "Time of the visit.", example = "15:30")
+    private Time time;
+
+    @Schema(description = "Whether the visit is approved or not")
+    private boolean approved;
+
+    @Schema(description = "Description/summery of the visit.")
+    private String description;
+
+    @Schema(description = "Id of the Vet.")
+    private UUID vetId;
+
+    @Schema(description = "First name of the Vet.", example = "Martin")
+    private String vetFirstName;
+
+    @Schema(description = "Last name of the Vet.", example = "Petrov")
+    private String vetLastName;
+
+    @Schema(description = "Type of the Vet.")
+    private String vetType;
+}
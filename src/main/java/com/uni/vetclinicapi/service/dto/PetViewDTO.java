@@ -0,0 +1,28 @@
+package com.uni.vetclinicapi.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+/**
+ * Read-only view of a Pet for the pet listings, holding only the columns of the pets table, without the owner entity.
+ * It is an interface, which PetRepository fills straight from a query, without loading a Pet entity.
+ */
+@Schema(description = "Read-only view of a Pet, used by the pet listings.")
+public interface PetViewDTO {
+
+    @Schema(description = "Id of the Pet.", example = "480d68e4-3f13-48f0-a6ec-c94b4d0d7683")
+    UUID getId();
+
+    @Schema(description = "Name of the pet.", example = "Charlie")
+    String getName();
+
+    @Schema(description = "Specie of the pet.", example = "Dog")
+    String getSpecie();
+
+    @Schema(description = "Breed of the specie.", example = "German shepard")
+    String getBreed();
+
+    @Schema(description = "Id of the User that owns the pet.")
+    UUID getOwnerId();
+}
@@ -0,0 +1,21 @@
+package com.uni.vetclinicapi.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This class holds the refresh token of a user, who wants new tokens or logs out.
+ */
+@Schema(description = "This DTO holds the refresh token of a User, who wants new tokens or logs out.", allowableValues = {"refreshToken"})
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class RefreshTokenRequestDTO {
+
+    @Schema(description = "The refresh token, issued on login or on the last refresh.")
+    @NotBlank
+    private String refreshToken;
+}
@@ -0,0 +1,24 @@
+package com.uni.vetclinicapi.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * This class holds the users and pets found by a search.
+ */
+@Schema(description = "This DTO holds the Users and Pets found by a search.", allowableValues = {"users", "pets"})
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class SearchResultDTO {
+
+    @Schema(description = "The users, whose first name, last name, email or phone number starts with the query")
+    private List<UserInfoDTO> users;
+
+    @Schema(description = "The pets, whose name starts with the query")
+    private List<PetSummaryDTO> pets;
+}
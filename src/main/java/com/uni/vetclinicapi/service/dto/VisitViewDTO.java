@@ -0,0 +1,51 @@
+package com.uni.vetclinicapi.service.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.UUID;
+
+/**
+ * Read-only view of a Visit for the visit listings, holding the pet and the vet by their id and names, instead of embedding their entities.
+ * It is an interface, which VisitRepository fills straight from a query, without loading a Visit entity.
+ */
+@Schema(description = "Read-only view of a Visit, used by the visit listings.")
+public interface VisitViewDTO {
+
+    @Schema(description = "Id of the Visit.", example = "480d68e4-3f13-48f0-a6ec-c94b4d0d7683")
+    UUID getId();
+
+    @Schema(description = "Date of the visit.", example = "2007-12-03")
+    Date getDate();
+
+    @Schema(description = "Time of the visit.", example = "15:30")
+    Time getTime();
+
+    @Schema(description = "Whether the is approved or not")
+    boolean isApproved();
+
+    @Schema(description = "Description/summery of the visit.")
+    String getDescription();
+
+    @Schema(description = "Id of the User, who made the visit.")
+    UUID getUserId();
+
+    @Schema(description = "Id of the visiting Pet.")
+    UUID getPetId();
+
+    @Schema(description = "Name of the visiting Pet.", example = "Coco")
+    String getPetName();
+
+    @Schema(description = "Id of the Vet.")
+    UUID getVetId();
+
+    @Schema(description = "First name of the Vet.", example = "Martin")
+    String getVetFirstName();
+
+    @Schema(description = "Last name of the Vet.")
+    String getVetLastName();
+
+    @Schema(description = "The type of vet.")
+    String getVetType();
+}
@@ -0,0 +1,31 @@
+package com.uni.vetclinicapi.service.mapper;
+
+import com.uni.vetclinicapi.persistance.entity.Medication;
+import com.uni.vetclinicapi.service.dto.FullMedicationDTO;
+import com.uni.vetclinicapi.service.dto.MedicationDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps between the Medication entity and its DTOs.
+ */
+@Component
+public class MedicationMapper {
+
+    /**
+     * Creates a new Medication, without an id, from the incoming DTO.
+     *
+     * @param medicationDTO - the name, type, quantity and description of the medication.
+     * @return - the new Medication entity.
+     */
+    public Medication toMedication(MedicationDTO medicationDTO) {
+        return new Medication(medicationDTO.getName(), medicationDTO.getType(), medicationDTO.getQuantity(), medicationDTO.getDescription());
+    }
+
+    /**
+     * @param medication - the Medication entity.
+     * @return - FullMedicationDTO with all the information about the medication.
+     */
+    public FullMedicationDTO toFullMedicationDTO(Medication medication) {
+        return new FullMedicationDTO(medication.getId(), medication.getName(), medication.getType(), medication.getQuantity(), medication.getDescription());
+    }
+}
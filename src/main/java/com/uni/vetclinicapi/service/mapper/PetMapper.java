@@ -0,0 +1,49 @@
+package com.uni.vetclinicapi.service.mapper;
+
+import com.uni.vetclinicapi.persistance.entity.Pet;
+import com.uni.vetclinicapi.service.dto.FullPetDTO;
+import com.uni.vetclinicapi.service.dto.PetDTO;
+import com.uni.vetclinicapi.service.dto.PetSummaryDTO;
+import com.uni.vetclinicapi.service.dto.PetViewDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps between the Pet entity and its DTOs.
+ */
+@Component
+public class PetMapper {
+
+    /**
+     * Creates a new Pet, without an id and an owner, from the incoming DTO.
+     *
+     * @param petDTO - the name, specie and breed of the pet.
+     * @return - the new Pet entity.
+     */
+    public Pet toPet(PetDTO petDTO) {
+        return new Pet(petDTO.getName(), petDTO.getSpecie(), petDTO.getBreed(), null);
+    }
+
+    /**
+     * @param pet - the Pet entity.
+     * @return - FullPetDTO with all the information about the pet.
+     */
+    public FullPetDTO toFullPetDTO(Pet pet) {
+        return new FullPetDTO(pet.getId(), pet.getName(), pet.getSpecie(), pet.getBreed(), pet.getUser());
+    }
+
+    /**
+     * @param pet - the Pet entity.
+     * @return - PetSummaryDTO with the owner given by id.
+     */
+    public PetSummaryDTO toPetSummaryDTO(Pet pet) {
+        return new PetSummaryDTO(pet.getId(), pet.getName(), pet.getSpecie(), pet.getBreed(), pet.getUser() != null ? pet.getUser().getId() : null);
+    }
+
+    /**
+     * @param petView - the read-only view of a Pet.
+     * @return - PetSummaryDTO with the owner given by id.
+     */
+    public PetSummaryDTO toPetSummaryDTO(PetViewDTO petView) {
+        return new PetSummaryDTO(petView.getId(), petView.getName(), petView.getSpecie(), petView.getBreed(), petView.getOwnerId());
+    }
+}
@@ -0,0 +1,31 @@
+package com.uni.vetclinicapi.service.mapper;
+
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.service.dto.RegisterResponseDTO;
+import com.uni.vetclinicapi.service.dto.UserInfoDTO;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps the User entity to its DTOs, leaving out the password and the other security details.
+ */
+@Component
+public class UserMapper {
+
+    /**
+     * @param user - the User entity.
+     * @return - UserInfoDTO with the profile of the user and its role.
+     */
+    public UserInfoDTO toUserInfoDTO(User user) {
+        String role = user.getAuthorities().stream().findFirst().map(GrantedAuthority::getAuthority).orElse(null);
+        return new UserInfoDTO(user.getId(), user.getUsername(), user.getEmail(), user.getFName(), user.getLName(), user.getPhoneNumber(), user.getVetType(), role);
+    }
+
+    /**
+     * @param user - the newly registered User entity.
+     * @return - RegisterResponseDTO with the username and email of the user.
+     */
+    public RegisterResponseDTO toRegisterResponseDTO(User user) {
+        return new RegisterResponseDTO(user.getUsername(), user.getEmail());
+    }
+}
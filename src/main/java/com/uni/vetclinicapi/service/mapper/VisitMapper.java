@@ -0,0 +1,46 @@
+package com.uni.vetclinicapi.service.mapper;
+
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.persistance.entity.Visit;
+import com.uni.vetclinicapi.service.dto.FullVisitDTO;
+import com.uni.vetclinicapi.service.dto.PetTimelineEntryDTO;
+import com.uni.vetclinicapi.service.dto.VisitDTO;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maps between the Visit entity and its DTOs.
+ */
+@Component
+public class VisitMapper {
+
+    /**
+     * Creates a new, not yet approved Visit, without an id and a user, from the incoming DTO.
+     *
+     * @param visitDTO - the date, time, description, pet and vet of the visit.
+     * @return - the new Visit entity.
+     */
+    public Visit toVisit(VisitDTO visitDTO) {
+        return new Visit(visitDTO.getDate(), visitDTO.getTime(), false, visitDTO.getDescription(), visitDTO.getPet(), visitDTO.getVet(), null);
+    }
+
+    /**
+     * @param visit - the Visit entity.
+     * @return - FullVisitDTO with all the information about the visit.
+     */
+    public FullVisitDTO toFullVisitDTO(Visit visit) {
+        return new FullVisitDTO(visit.getId(), visit.getDate(), visit.getTime(), visit.isApproved(), visit.getDescription(), visit.getPet(), visit.getVet(), visit.getUser());
+    }
+
+    /**
+     * @param visit - the Visit entity, with its vet fetched.
+     * @return - PetTimelineEntryDTO with the visit and the vet, who saw the pet.
+     */
+    public PetTimelineEntryDTO toPetTimelineEntryDTO(Visit visit) {
+        User vet = visit.getVet();
+        return new PetTimelineEntryDTO(visit.getId(), visit.getDate(), visit.getTime(), visit.isApproved(), visit.getDescription(),
+                vet != null ? vet.getId() : null,
+                vet != null ? vet.getFName() : null,
+                vet != null ? vet.getLName() : null,
+                vet != null ? vet.getVetType() : null);
+    }
+}
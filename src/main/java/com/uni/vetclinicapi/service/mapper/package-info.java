@@ -0,0 +1,5 @@
+/**
+ * This package contains the mappers between the entities and the DTOs.
+ * They copy the properties with plain getters and constructors, instead of resolving them by reflection at runtime like ModelMapper.
+ */
+package com.uni.vetclinicapi.service.mapper;
@@ -0,0 +1,110 @@
+package com.uni.vetclinicapi.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 comma separated values one record at a time, so a file of any size is read with constant memory.
+ * Fields may be quoted, a quoted field may contain commas, line breaks and quotes, which are doubled.
+ * Empty lines are skipped.
+ */
+public class CsvReader {
+
+    private final Reader reader;
+
+    private long lineNumber = 1;
+
+    private long recordLineNumber;
+
+    private int pushedBack = -1;
+
+    /**
+     * @param reader - the source of the values, it is read one character at a time, so it should be buffered.
+     */
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return - the fields of the record, or null at the end of the input.
+     * @throws IOException - if the input can't be read or ends inside a quoted field.
+     */
+    public List<String> readRecord() throws IOException {
+        int next = read();
+        while (next == '\r' || next == '\n') {
+            next = skipLineBreak(next);
+        }
+        if (next == -1) {
+            return null;
+        }
+        recordLineNumber = lineNumber;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (next == -1) {
+                    throw new IOException(String.format("Quoted field of the record on line %d is not closed!", recordLineNumber));
+                }
+                if (next == '"') {
+                    next = read();
+                    if (next == '"') {
+                        field.append('"');
+                        next = read();
+                    } else {
+                        quoted = false;
+                    }
+                    continue;
+                }
+                if (next == '\n') {
+                    lineNumber++;
+                }
+                field.append((char) next);
+            } else if (next == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (next == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (next == '\r' || next == '\n' || next == -1) {
+                fields.add(field.toString());
+                if (next != -1) {
+                    pushedBack = skipLineBreak(next);
+                }
+                return fields;
+            } else {
+                field.append((char) next);
+            }
+            next = read();
+        }
+    }
+
+    /**
+     * @return - the line, on which the last read record started, counted from 1.
+     */
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    // Consumes "\r\n" as a single line break and returns the character after the break.
+    private int skipLineBreak(int lineBreak) throws IOException {
+        lineNumber++;
+        int next = read();
+        if (lineBreak == '\r' && next == '\n') {
+            next = read();
+        }
+        return next;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -1) {
+            int next = pushedBack;
+            pushedBack = -1;
+            return next;
+        }
+        return reader.read();
+    }
+}
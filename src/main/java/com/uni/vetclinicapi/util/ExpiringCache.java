@@ -0,0 +1,153 @@
+package com.uni.vetclinicapi.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrent, size-bounded cache, whose entries are only valid until a given point in time.
+ * Expired entries are dropped lazily when read and swept out once the cache reaches its capacity.
+ * Keeps hit, miss, put and eviction counters, which are published through {@link ExpiringCacheMetrics}.
+ *
+ * @param <K> - type of the keys.
+ * @param <V> - type of the cached values.
+ */
+public class ExpiringCache<K, V> {
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder puts = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param maxSize - the maximum number of entries the cache holds at any time.
+     */
+    public ExpiringCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive!");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the value cached for the key, if it is present and not yet expired.
+     *
+     * @param key - the key to look up.
+     * @return - the cached value or null.
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value();
+    }
+
+    /**
+     * Caches a value until the given point in time, making room for it if the cache is full.
+     *
+     * @param key         - the key of the value.
+     * @param value       - the value to cache.
+     * @param expiresAtMs - epoch millis after which the value is no longer returned.
+     */
+    public void put(K key, V value, long expiresAtMs) {
+        if (entries.size() >= maxSize && !entries.containsKey(key)) {
+            makeRoom();
+        }
+        entries.put(key, new Entry<>(value, expiresAtMs));
+        puts.increment();
+    }
+
+    /**
+     * Removes the value cached for the key, if any.
+     *
+     * @param key - the key to remove.
+     */
+    public void invalidate(K key) {
+        if (entries.remove(key) != null) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Removes all cached values.
+     */
+    public void invalidateAll() {
+        evictions.add(entries.size());
+        entries.clear();
+    }
+
+    /**
+     * @return - the number of entries currently held, including the ones which expired but weren't swept yet.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getPutCount() {
+        return puts.sum();
+    }
+
+    /**
+     * @return - the number of entries removed because they expired, the cache was full, or they were invalidated.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Drops all expired entries. If the cache is still full afterwards, a tenth of it is dropped,
+     * so that the next puts don't have to sweep the whole map again.
+     */
+    private void makeRoom() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry<V>> expired = entries.values().iterator();
+        while (expired.hasNext()) {
+            if (expired.next().isExpired(now)) {
+                expired.remove();
+                evictions.increment();
+            }
+        }
+        int toEvict = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<K> iterator = entries.keySet().iterator();
+        while (toEvict-- > 0 && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtMs) {
+
+        boolean isExpired(long now) {
+            return now >= expiresAtMs;
+        }
+    }
+}
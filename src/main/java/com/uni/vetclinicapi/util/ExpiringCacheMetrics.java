@@ -0,0 +1,63 @@
+package com.uni.vetclinicapi.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.List;
+
+/**
+ * Publishes the counters of an {@link ExpiringCache} as the standard "cache.*" meters, so they show up under /actuator/metrics.
+ */
+public class ExpiringCacheMetrics extends CacheMeterBinder<ExpiringCache<?, ?>> {
+
+    public ExpiringCacheMetrics(ExpiringCache<?, ?> cache, String cacheName) {
+        super(cache, cacheName, List.<Tag>of());
+    }
+
+    /**
+     * Binds the meters of the cache to the registry.
+     *
+     * @param cache     - the cache to monitor.
+     * @param cacheName - the value of the "cache" tag of the meters.
+     * @param registry  - the registry to publish to.
+     */
+    public static void monitor(ExpiringCache<?, ?> cache, String cacheName, MeterRegistry registry) {
+        new ExpiringCacheMetrics(cache, cacheName).bindTo(registry);
+    }
+
+    @Override
+    protected Long size() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache != null ? (long) cache.size() : null;
+    }
+
+    @Override
+    protected long hitCount() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache != null ? cache.getHitCount() : 0;
+    }
+
+    @Override
+    protected Long missCount() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache != null ? cache.getMissCount() : null;
+    }
+
+    @Override
+    protected Long evictionCount() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache != null ? cache.getEvictionCount() : null;
+    }
+
+    @Override
+    protected long putCount() {
+        ExpiringCache<?, ?> cache = getCache();
+        return cache != null ? cache.getPutCount() : 0;
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        // The standard cache meters cover everything the cache keeps track of.
+    }
+}
@@ -0,0 +1,91 @@
+package com.uni.vetclinicapi.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Concurrent counts of items by a pair of facets, like the specie and the breed of the pets.
+ * Every distinct pair has its own {@link LongAdder}, so concurrent updates of the same pair don't contend on a single value.
+ * The facet counts are summed over the pairs on every read, which is cheap, because there are far fewer pairs than items.
+ * Pairs, whose count drops to zero, are kept and skipped by the reads, so an update never races with the removal of its pair.
+ *
+ * @param <A> - type of the first facet.
+ * @param <B> - type of the second facet.
+ */
+public class FacetCounter<A, B> {
+
+    private final Map<Pair<A, B>, LongAdder> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Changes the count of the pair.
+     *
+     * @param first  - the first facet of the items.
+     * @param second - the second facet of the items.
+     * @param delta  - the number of added items, negative for removed items.
+     */
+    public void add(A first, B second, long delta) {
+        counts.computeIfAbsent(new Pair<>(first, second), pair -> new LongAdder()).add(delta);
+    }
+
+    /**
+     * Counts the items by their first facet.
+     *
+     * @param second - only the items with this second facet are counted, all items if null.
+     * @return - the non-zero counts, from the largest to the smallest.
+     */
+    public Map<A, Long> countByFirst(B second) {
+        return countBy(Pair::first, pair -> second == null || second.equals(pair.second()));
+    }
+
+    /**
+     * Counts the items by their second facet.
+     *
+     * @param first - only the items with this first facet are counted, all items if null.
+     * @return - the non-zero counts, from the largest to the smallest.
+     */
+    public Map<B, Long> countBySecond(A first) {
+        return countBy(Pair::second, pair -> first == null || first.equals(pair.first()));
+    }
+
+    /**
+     * Counts the items with both facets.
+     *
+     * @param first  - the first facet, any if null.
+     * @param second - the second facet, any if null.
+     * @return - the number of matching items.
+     */
+    public long count(A first, B second) {
+        long total = 0;
+        for (Map.Entry<Pair<A, B>, LongAdder> entry : counts.entrySet()) {
+            Pair<A, B> pair = entry.getKey();
+            if ((first == null || first.equals(pair.first())) && (second == null || second.equals(pair.second()))) {
+                total += entry.getValue().sum();
+            }
+        }
+        return total;
+    }
+
+    private <K> Map<K, Long> countBy(Function<Pair<A, B>, K> facet, Predicate<Pair<A, B>> filter) {
+        Map<K, Long> facetCounts = new HashMap<>();
+        counts.forEach((pair, count) -> {
+            if (filter.test(pair)) {
+                facetCounts.merge(facet.apply(pair), count.sum(), Long::sum);
+            }
+        });
+        Map<K, Long> sortedCounts = new LinkedHashMap<>();
+        facetCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.<K, Long>comparingByValue().reversed().thenComparing(entry -> Objects.toString(entry.getKey())))
+                .forEach(entry -> sortedCounts.put(entry.getKey(), entry.getValue()));
+        return sortedCounts;
+    }
+
+    private record Pair<A, B>(A first, B second) {
+    }
+}
@@ -0,0 +1,112 @@
+package com.uni.vetclinicapi.util;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Half-open intervals [start, end), grouped by a key, like the visits of a vet on a day.
+ * The intervals of a key are kept sorted by their start, so finding the ones overlapping an interval only seeks to the intervals,
+ * which start less than the longest interval before it, and takes O(log n).
+ * Every key is locked on its own, so checks and changes of different keys don't contend.
+ *
+ * @param <K> - type of the keys.
+ * @param <V> - type of the values, which tell apart intervals of a key with the same bounds.
+ */
+public class IntervalIndex<K, V extends Comparable<? super V>> {
+
+    private final Comparator<Interval<V>> order = Comparator.<Interval<V>>comparingLong(Interval::start)
+            .thenComparingLong(Interval::end)
+            .thenComparing(Interval::value, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final Map<K, NavigableSet<Interval<V>>> intervals = new ConcurrentHashMap<>();
+
+    // Never shrinks, a longer length than needed only widens the seek.
+    private final AtomicLong maxLength = new AtomicLong();
+
+    /**
+     * Checks whether any interval of the key overlaps the given one.
+     *
+     * @param key   - the key of the intervals.
+     * @param start - the start of the interval, inclusive.
+     * @param end   - the end of the interval, exclusive.
+     * @return - true, if an interval of the key overlaps it.
+     */
+    public boolean overlaps(K key, long start, long end) {
+        NavigableSet<Interval<V>> keyIntervals = intervals.get(key);
+        if (keyIntervals == null) {
+            return false;
+        }
+        synchronized (keyIntervals) {
+            return overlaps(keyIntervals, start, end);
+        }
+    }
+
+    /**
+     * Adds the interval, even if it overlaps others. A caller, which must not add overlapping intervals, checks with overlaps under its own lock first.
+     *
+     * @param key   - the key of the interval.
+     * @param start - the start of the interval, inclusive.
+     * @param end   - the end of the interval, exclusive, greater than the start.
+     * @param value - the value of the interval.
+     */
+    public void add(K key, long start, long end, V value) {
+        NavigableSet<Interval<V>> keyIntervals = intervals.computeIfAbsent(key, k -> new TreeSet<>(order));
+        synchronized (keyIntervals) {
+            insert(keyIntervals, new Interval<>(start, end, value));
+        }
+    }
+
+    /**
+     * Removes the interval.
+     *
+     * @param key   - the key of the interval.
+     * @param start - the start of the interval.
+     * @param end   - the end of the interval.
+     * @param value - the value of the interval.
+     * @return - true, if the interval was there.
+     */
+    public boolean remove(K key, long start, long end, V value) {
+        NavigableSet<Interval<V>> keyIntervals = intervals.get(key);
+        if (keyIntervals == null) {
+            return false;
+        }
+        synchronized (keyIntervals) {
+            return keyIntervals.remove(new Interval<>(start, end, value));
+        }
+    }
+
+    /**
+     * Drops the intervals of every matching key, like the days, which have passed.
+     * Intervals added to a key while it is dropped may be lost, so only keys, which are no longer changed, should be dropped.
+     *
+     * @param filter - matches the keys to drop.
+     */
+    public void removeKeys(Predicate<K> filter) {
+        intervals.keySet().removeIf(filter);
+    }
+
+    private boolean overlaps(NavigableSet<Interval<V>> keyIntervals, long start, long end) {
+        // Only the intervals starting after start - maxLength can reach past the start.
+        Interval<V> from = new Interval<>(start - maxLength.get() + 1, Long.MIN_VALUE, null);
+        Interval<V> to = new Interval<>(end, Long.MIN_VALUE, null);
+        for (Interval<V> interval : keyIntervals.subSet(from, true, to, false)) {
+            if (interval.end() > start) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void insert(NavigableSet<Interval<V>> keyIntervals, Interval<V> interval) {
+        maxLength.accumulateAndGet(interval.end() - interval.start(), Math::max);
+        keyIntervals.add(interval);
+    }
+
+    private record Interval<V>(long start, long end, V value) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.uni.vetclinicapi.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a listing, which is ordered by some value and the id of the row.
+ * The next page is fetched with "where (value, id) > (cursor value, cursor id)", which seeks through an index on (value, id),
+ * so a page deep into the listing costs as much as the first one, unlike an offset, which has to skip all rows before it.
+ * It is handed to the clients as an opaque URL safe string, which also names the sort it was issued for.
+ *
+ * @param sort  - the name of the sort the cursor belongs to.
+ * @param value - the sort value of the last row of the page.
+ * @param id    - the id of the last row of the page.
+ */
+public record KeysetCursor(String sort, String value, UUID id) {
+
+    private static final char SEPARATOR = '\n';
+
+    /**
+     * @return - the cursor as an opaque URL safe string.
+     */
+    public String encode() {
+        String cursor = sort + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor, produced by {@link #encode()}.
+     *
+     * @param encoded - the opaque cursor string.
+     * @return - the decoded cursor.
+     * @throws IllegalArgumentException - if the string isn't a valid cursor.
+     */
+    public static KeysetCursor decode(String encoded) {
+        String cursor = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+        // The value sits between the first and the last separator, so it may contain the separator itself.
+        int valueStart = cursor.indexOf(SEPARATOR);
+        int idStart = cursor.lastIndexOf(SEPARATOR);
+        if (valueStart < 0 || valueStart == idStart) {
+            throw new IllegalArgumentException("Cursor is malformed!");
+        }
+        return new KeysetCursor(cursor.substring(0, valueStart), cursor.substring(valueStart + 1, idStart), UUID.fromString(cursor.substring(idStart + 1)));
+    }
+}
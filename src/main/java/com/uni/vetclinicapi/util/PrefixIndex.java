@@ -0,0 +1,136 @@
+package com.uni.vetclinicapi.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+
+/**
+ * Concurrent index, which finds values by the first letters of any of their terms - words of a name, an email, a phone number.
+ * Every term is kept in a sorted skip list together with the key of its value, so the terms starting with a prefix are a range of the list,
+ * found in logarithmic time. Adding, updating or removing a value only touches the terms of that value.
+ * Terms and queries are compared in lower case, a query of several words matches the values, which have a term starting with each of the words.
+ *
+ * @param <K> - type of the keys, which identify the values.
+ * @param <V> - type of the indexed values.
+ */
+public class PrefixIndex<K, V> {
+
+    // Sorts before every other character, so the entries of a term come before the entries of the longer terms starting with it.
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final ConcurrentSkipListMap<String, K> terms = new ConcurrentSkipListMap<>();
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the value or replaces the value with the same key and its terms.
+     *
+     * @param key      - the key of the value.
+     * @param value    - the value to index.
+     * @param rawTerms - the texts to find the value by, split into words. Null texts are skipped.
+     */
+    public void put(K key, V value, Collection<String> rawTerms) {
+        List<String> valueTerms = new ArrayList<>();
+        for (String rawTerm : rawTerms) {
+            if (rawTerm != null) {
+                valueTerms.addAll(words(rawTerm));
+            }
+        }
+        // Runs atomically for the key, so concurrent updates of one value don't mix their terms.
+        entries.compute(key, (k, oldEntry) -> {
+            if (oldEntry != null) {
+                oldEntry.terms().forEach(term -> terms.remove(termKey(term, k)));
+            }
+            valueTerms.forEach(term -> terms.put(termKey(term, k), k));
+            return new Entry<>(value, valueTerms);
+        });
+    }
+
+    /**
+     * Removes the value with the key and its terms.
+     *
+     * @param key - the key of the value.
+     */
+    public void remove(K key) {
+        entries.computeIfPresent(key, (k, oldEntry) -> {
+            oldEntry.terms().forEach(term -> terms.remove(termKey(term, k)));
+            return null;
+        });
+    }
+
+    /**
+     * Removes all values matching the filter. Goes through every value, so it is meant for rare bulk removals.
+     *
+     * @param filter - selects the values to remove.
+     */
+    public void removeIf(Predicate<V> filter) {
+        entries.forEach((key, entry) -> {
+            if (filter.test(entry.value())) {
+                remove(key);
+            }
+        });
+    }
+
+    /**
+     * Returns the values, which have a term starting with each word of the query, in the order of their matching terms.
+     *
+     * @param query - one or more words, typed so far.
+     * @param limit - the maximum number of values to return.
+     * @return - the matching values, each of them once.
+     */
+    public List<V> search(String query, int limit) {
+        List<String> queryWords = words(query);
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+        // The longest word has the fewest terms starting with it, the other words only filter its matches.
+        String longestWord = Collections.max(queryWords, Comparator.comparingInt(String::length));
+        Map<K, V> matches = new LinkedHashMap<>();
+        for (K key : terms.subMap(longestWord, true, longestWord + Character.MAX_VALUE, false).values()) {
+            if (matches.size() >= limit) {
+                break;
+            }
+            Entry<V> entry = entries.get(key);
+            if (entry != null && !matches.containsKey(key) && entry.matchesAll(queryWords)) {
+                matches.put(key, entry.value());
+            }
+        }
+        return new ArrayList<>(matches.values());
+    }
+
+    /**
+     * Returns the number of indexed values.
+     *
+     * @return - the number of values.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static String termKey(String term, Object key) {
+        return term + KEY_SEPARATOR + key;
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("\\s+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private record Entry<V>(V value, List<String> terms) {
+
+        boolean matchesAll(List<String> queryWords) {
+            for (String queryWord : queryWords) {
+                if (terms.stream().noneMatch(term -> term.startsWith(queryWord))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.uni.vetclinicapi.util;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A fixed number of locks shared by any number of keys, like the days of the vets.
+ * Work on the same key is serialized, while work on different keys mostly runs in parallel, without keeping a lock for every key.
+ * Two keys may share a lock, which only makes one of them wait, so the number of stripes should be well above the number of concurrent keys.
+ */
+public class StripedLocks {
+
+    private final Lock[] locks;
+
+    /**
+     * @param stripes - the number of locks, rounded up to a power of two.
+     */
+    public StripedLocks(int stripes) {
+        locks = new Lock[stripes <= 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs the work while holding the lock of the key.
+     *
+     * @param key  - the key of the work.
+     * @param work - the work to run.
+     * @param <T>  - the type of the result.
+     * @return - the result of the work.
+     */
+    public <T> T callLocked(Object key, Supplier<T> work) {
+        Lock lock = get(key);
+        lock.lock();
+        try {
+            return work.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param key - the key.
+     * @return - the lock of the key, always the same one for equal keys.
+     */
+    public Lock get(Object key) {
+        int hash = key.hashCode();
+        // Spreads the higher bits of the hash to the lower ones, which pick the lock.
+        hash ^= hash >>> 16;
+        return locks[hash & (locks.length - 1)];
+    }
+}
@@ -0,0 +1,100 @@
+package com.uni.vetclinicapi.util;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free rate limiter, which keeps a token bucket per key.
+ * A bucket holds up to "capacity" tokens and is refilled completely within the refill period.
+ * Each bucket is stored as a single number - the point in time at which it will be full again - which is advanced with compare-and-set,
+ * so concurrent requests for the same key never block each other.
+ * Full buckets carry no information and are dropped by {@link #sweepIdle()}, which keeps the memory bounded by the number of recently active keys.
+ */
+public class TokenBucketLimiter {
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final long tokenIntervalNanos;
+
+    private final long capacityNanos;
+
+    private final int maxKeys;
+
+    private final LongSupplier nanoClock;
+
+    /**
+     * Creates a limiter with empty state, every key starts with a full bucket.
+     *
+     * @param capacity     - the number of requests a key can make in a burst.
+     * @param refillPeriod - the time in which an empty bucket becomes full again.
+     * @param maxKeys      - the maximum number of keys tracked at once, requests for further keys are not limited.
+     */
+    public TokenBucketLimiter(int capacity, Duration refillPeriod, int maxKeys) {
+        this(capacity, refillPeriod, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketLimiter(int capacity, Duration refillPeriod, int maxKeys, LongSupplier nanoClock) {
+        if (capacity <= 0 || maxKeys <= 0 || refillPeriod.isNegative() || refillPeriod.isZero()) {
+            throw new IllegalArgumentException("Capacity, refill period and max keys must be positive!");
+        }
+        this.tokenIntervalNanos = Math.max(1, refillPeriod.toNanos() / capacity);
+        this.capacityNanos = tokenIntervalNanos * capacity;
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes a token from the bucket of the key, if there is one.
+     *
+     * @param key - the key to limit, for example a remote address.
+     * @return - 0 if the request is allowed, otherwise the milliseconds until the next token is available.
+     */
+    public long tryAcquire(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                sweepIdle();
+                if (buckets.size() >= maxKeys) {
+                    // Failing open here keeps a flood of distinct keys from locking everybody out, the other limits still apply.
+                    return 0;
+                }
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(nanoClock.getAsLong() - capacityNanos));
+        }
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long fullAt = bucket.get();
+            long newFullAt = Math.max(fullAt, now) + tokenIntervalNanos;
+            long overdraftNanos = newFullAt - now - capacityNanos;
+            if (overdraftNanos > 0) {
+                return Math.max(1, Duration.ofNanos(overdraftNanos).toMillis());
+            }
+            if (bucket.compareAndSet(fullAt, newFullAt)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops the buckets, which have refilled completely.
+     * A request racing with the removal may take its token from the dropped bucket, which at most grants one extra request.
+     *
+     * @return - the number of dropped buckets.
+     */
+    public int sweepIdle() {
+        long now = nanoClock.getAsLong();
+        int sizeBefore = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return sizeBefore - buckets.size();
+    }
+
+    /**
+     * @return - the number of keys currently tracked.
+     */
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * This package contains general purpose helpers, shared between the other layers.
+ */
+package com.uni.vetclinicapi.util;
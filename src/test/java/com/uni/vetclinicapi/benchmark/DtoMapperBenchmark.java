@@ -0,0 +1,104 @@
+package com.uni.vetclinicapi.benchmark;
+
+import com.uni.vetclinicapi.persistance.entity.Pet;
+import com.uni.vetclinicapi.persistance.entity.Role;
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.persistance.entity.Visit;
+import com.uni.vetclinicapi.service.dto.FullPetDTO;
+import com.uni.vetclinicapi.service.dto.FullVisitDTO;
+import com.uni.vetclinicapi.service.dto.PetDTO;
+import com.uni.vetclinicapi.service.dto.UserInfoDTO;
+import com.uni.vetclinicapi.service.mapper.PetMapper;
+import com.uni.vetclinicapi.service.mapper.UserMapper;
+import com.uni.vetclinicapi.service.mapper.VisitMapper;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hand-written mappers of the services with the reflective ModelMapper they replaced, on the mappings of the busiest endpoints.
+ * The GC profiler adds the allocation rate, "gc.alloc.rate.norm" is the number of bytes allocated by a single mapping:
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java -Dexec.args="-cp %classpath org.openjdk.jmh.Main DtoMapperBenchmark -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoMapperBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+
+    private final UserMapper userMapper = new UserMapper();
+
+    private final PetMapper petMapper = new PetMapper();
+
+    private final VisitMapper visitMapper = new VisitMapper();
+
+    private User user;
+
+    private Pet pet;
+
+    private Visit visit;
+
+    private PetDTO petDTO;
+
+    @Setup
+    public void setUp() {
+        user = new User("Vet1", "{bcrypt}hash", "vet1@vetclinic.com", "Martin", "Petrov", "0888888888", "Surgeon", Set.of(new Role(Role.RoleType.VET)));
+        user.setId(UUID.randomUUID());
+        pet = new Pet("Rex", "Dog", "Pug", user);
+        pet.setId(UUID.randomUUID());
+        visit = new Visit(Date.valueOf("2024-01-02"), Time.valueOf("10:00:00"), false, "Annual check up.", pet, user, user);
+        visit.setId(UUID.randomUUID());
+        petDTO = new PetDTO("Rex", "Dog", "Pug");
+    }
+
+    @Benchmark
+    public UserInfoDTO modelMapperUserInfo() {
+        return modelMapper.map(user, UserInfoDTO.class);
+    }
+
+    @Benchmark
+    public UserInfoDTO handWrittenUserInfo() {
+        return userMapper.toUserInfoDTO(user);
+    }
+
+    @Benchmark
+    public FullPetDTO modelMapperFullPet() {
+        return modelMapper.map(pet, FullPetDTO.class);
+    }
+
+    @Benchmark
+    public FullPetDTO handWrittenFullPet() {
+        return petMapper.toFullPetDTO(pet);
+    }
+
+    @Benchmark
+    public FullVisitDTO modelMapperFullVisit() {
+        return modelMapper.map(visit, FullVisitDTO.class);
+    }
+
+    @Benchmark
+    public FullVisitDTO handWrittenFullVisit() {
+        return visitMapper.toFullVisitDTO(visit);
+    }
+
+    @Benchmark
+    public Pet modelMapperPet() {
+        return modelMapper.map(petDTO, Pet.class);
+    }
+
+    @Benchmark
+    public Pet handWrittenPet() {
+        return petMapper.toPet(petDTO);
+    }
+}
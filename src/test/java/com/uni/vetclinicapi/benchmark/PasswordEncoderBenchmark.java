@@ -0,0 +1,62 @@
+package com.uni.vetclinicapi.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long verifying a password takes with each supported encoder and cost, which is the CPU work of a single login.
+ * The sample time mode reports percentiles, so the p99 of a setting can be compared against the login latency we aim for.
+ * Run it on the machine, whose CPU you want to tune for, a single setting can be picked with "-p encoder=bcrypt-12":
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java -Dexec.args="-cp %classpath org.openjdk.jmh.Main PasswordEncoderBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "correct-horse-battery";
+
+    @Param({"bcrypt-10", "bcrypt-12", "bcrypt-14", "pbkdf2-310000", "pbkdf2-600000", "argon2-16384-2", "argon2-65536-3"})
+    private String encoder;
+
+    private PasswordEncoder passwordEncoder;
+
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = createEncoder(encoder);
+        encodedPassword = passwordEncoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return passwordEncoder.matches(PASSWORD, encodedPassword);
+    }
+
+    /**
+     * Creates the encoder, described by "name-cost", where the cost is the BCrypt strength, the PBKDF2 iterations or the Argon2 memory in KiB and iterations.
+     *
+     * @param setting - the encoder and its cost.
+     * @return - the configured encoder.
+     */
+    private static PasswordEncoder createEncoder(String setting) {
+        String[] parts = setting.split("-");
+        return switch (parts[0]) {
+            case "bcrypt" -> new BCryptPasswordEncoder(Integer.parseInt(parts[1]));
+            case "pbkdf2" -> new Pbkdf2PasswordEncoder("", 16, Integer.parseInt(parts[1]), Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+            case "argon2" -> new Argon2PasswordEncoder(16, 32, 1, Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+            default -> throw new IllegalArgumentException(String.format("Unknown encoder setting : %s", setting));
+        };
+    }
+}
@@ -0,0 +1,168 @@
+package com.uni.vetclinicapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uni.vetclinicapi.VetclinicapiApplication;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test, which compares the request throughput and latency of the Tomcat thread pool with the virtual thread mode.
+ * It starts the application twice in-process, once with "app.virtualThreads" off and once on, against an in-memory database,
+ * whose every statement is delayed to simulate a slow database. Then it sends authenticated requests to one endpoint
+ * with the given number of requests in flight, and prints the throughput with the p50 and p99 latency of each mode.
+ * Settings are read from system properties: loadTest.concurrency, loadTest.requests, loadTest.dbLatencyMs, loadTest.poolSize and loadTest.path.
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java -Dexec.args="-DloadTest.concurrency=1000 -cp %classpath com.uni.vetclinicapi.benchmark.RequestLoadComparison"
+ * </pre>
+ */
+public class RequestLoadComparison {
+
+    private static final int CONCURRENCY = Integer.getInteger("loadTest.concurrency", 500);
+
+    private static final int REQUESTS = Integer.getInteger("loadTest.requests", 20000);
+
+    private static final int DB_LATENCY_MS = Integer.getInteger("loadTest.dbLatencyMs", 20);
+
+    private static final int POOL_SIZE = Integer.getInteger("loadTest.poolSize", 200);
+
+    private static final String PATH = System.getProperty("loadTest.path", "/api/v1/users/vets");
+
+    private final HttpClient httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%d requests to %s, %d in flight, %d ms per statement, %d database connections%n",
+                REQUESTS, PATH, CONCURRENCY, DB_LATENCY_MS, POOL_SIZE);
+        RequestLoadComparison loadComparison = new RequestLoadComparison();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            loadComparison.run(virtualThreads);
+        }
+        System.exit(0);
+    }
+
+    private void run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(VetclinicapiApplication.class, SlowDatabaseConfig.class)
+                .properties(
+                        "server.port=0",
+                        "app.virtualThreads=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "logging.level.root=WARN")
+                .run()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            String token = login(baseUrl);
+            send(baseUrl, token, Math.min(REQUESTS, 2000));
+            long startNanos = System.nanoTime();
+            long[] latencies = send(baseUrl, token, REQUESTS);
+            double seconds = (System.nanoTime() - startNanos) / 1e9;
+            Arrays.sort(latencies);
+            System.out.printf("%-16s throughput %8.1f req/s, p50 %7.1f ms, p99 %7.1f ms%n",
+                    virtualThreads ? "virtual threads" : "thread pool", REQUESTS / seconds,
+                    latencies[latencies.length / 2] / 1e6, latencies[(int) (latencies.length * 0.99)] / 1e6);
+        }
+    }
+
+    private String login(String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"Admin\",\"password\":\"Password\"}"))
+                .build();
+        String body = httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        return new ObjectMapper().readTree(body).get("token").asText();
+    }
+
+    /**
+     * Sends the requests, keeping the given number of them in flight, and returns the latency of each in nanoseconds.
+     */
+    private long[] send(String baseUrl, String token, int requests) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + PATH))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        long[] latencies = new long[requests];
+        AtomicInteger failures = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                inFlight.acquire();
+                executor.submit(() -> {
+                    long startNanos = System.nanoTime();
+                    try {
+                        if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        latencies[index] = System.nanoTime() - startNanos;
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        if (failures.get() > 0) {
+            System.out.printf("%d of %d requests failed%n", failures.get(), requests);
+        }
+        return latencies;
+    }
+
+    /**
+     * Wraps the data source, so that every executed statement waits the configured time, like a round trip to a slow database would.
+     * Not annotated with @Configuration, so that the component scan of the other tests doesn't pick it up.
+     */
+    static class SlowDatabaseConfig {
+
+        @Bean
+        static BeanPostProcessor slowDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? delayed(DataSource.class, dataSource) : bean;
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T delayed(Class<T> type, T target) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                if (target instanceof Statement && method.getName().startsWith("execute")) {
+                    Thread.sleep(DB_LATENCY_MS);
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Connection connection && method.getReturnType() == Connection.class) {
+                    return delayed(Connection.class, connection);
+                }
+                if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                    return delayed((Class<Statement>) method.getReturnType(), statement);
+                }
+                return result;
+            };
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+    }
+}
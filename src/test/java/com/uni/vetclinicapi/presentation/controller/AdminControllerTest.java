@@ -0,0 +1,311 @@
+package com.uni.vetclinicapi.presentation.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uni.vetclinicapi.persistance.entity.Pet;
+import com.uni.vetclinicapi.persistance.entity.Role;
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.persistance.entity.Visit;
+import com.uni.vetclinicapi.persistance.repository.PetRepository;
+import com.uni.vetclinicapi.persistance.repository.RoleRepository;
+import com.uni.vetclinicapi.persistance.repository.UserRepository;
+import com.uni.vetclinicapi.persistance.repository.VisitRepository;
+import com.uni.vetclinicapi.service.dto.ImportErrorDTO;
+import com.uni.vetclinicapi.service.dto.ImportResultDTO;
+import com.uni.vetclinicapi.service.dto.JwtResponseDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.uni.vetclinicapi.service.dto.LoginRequestDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Not transactional, the purge runs in the background and only sees committed users, each test works on users of its own.
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+class AdminControllerTest {
+
+    private static final String ADMIN_USERS_ENDPOINT = "/api/v1/admin/users";
+
+    private static final String EXPORT_ENDPOINT = "/api/v1/admin/export";
+
+    private static final String IMPORT_ENDPOINT = "/api/v1/admin/import/users";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private User admin;
+
+    private User customer;
+
+    private Pet customerPet;
+
+    @BeforeEach
+    void setUp() {
+        admin = userRepository.findByUsername("Admin").orElseThrow();
+        customer = userRepository.findByUsername("Customer").orElseThrow();
+        customerPet = petRepository.findAll().stream().filter(p -> p.getUser() != null && p.getUser().getId().equals(customer.getId())).findFirst().orElseThrow();
+    }
+
+    @Test
+    void executeAdminControllerDeleteUser_ShouldDeleteTheVisitsOfADeletedVet() throws Exception {
+        // Arrange
+        User vet = saveUser(Role.RoleType.VET);
+        Visit visit = saveVisit(customerPet, vet, customer);
+        // Act
+        mvc.perform(delete(ADMIN_USERS_ENDPOINT).with(user(admin)).param("userId", vet.getId().toString()))
+                .andExpect(status().isOk());
+        // Assert
+        assertFalse(userRepository.existsById(vet.getId()));
+        assertFalse(visitRepository.existsById(visit.getId()));
+        assertTrue(petRepository.existsById(customerPet.getId()));
+    }
+
+    @Test
+    void executeAdminControllerDeleteUser_ShouldDeleteTheVisitsOtherUsersBookedForThePetsOfADeletedCustomer() throws Exception {
+        // Arrange
+        User deletedCustomer = saveUser(Role.RoleType.CUSTOMER);
+        Pet pet = petRepository.save(new Pet("Rex", "Dog", "Husky", deletedCustomer));
+        User vet = userRepository.findByUsername("Vet1").orElseThrow();
+        Visit visitOfOtherUser = saveVisit(pet, vet, customer);
+        Visit visitOfOtherPet = saveVisit(customerPet, vet, customer);
+        // Act
+        mvc.perform(delete(ADMIN_USERS_ENDPOINT).with(user(admin)).param("userId", deletedCustomer.getId().toString()))
+                .andExpect(status().isOk());
+        // Assert
+        assertFalse(userRepository.existsById(deletedCustomer.getId()));
+        assertFalse(petRepository.existsById(pet.getId()));
+        assertFalse(visitRepository.existsById(visitOfOtherUser.getId()));
+        assertTrue(visitRepository.existsById(visitOfOtherPet.getId()));
+        visitRepository.deleteById(visitOfOtherPet.getId());
+    }
+
+    @Test
+    void executeAdminControllerDeleteUserAsync_ShouldDisableTheUserAtOnceAndPurgeItInTheBackground() throws Exception {
+        // Arrange
+        User purgedCustomer = saveUser(Role.RoleType.CUSTOMER);
+        Pet pet = petRepository.save(new Pet("Rex", "Dog", "Husky", purgedCustomer));
+        Visit visit = saveVisit(pet, userRepository.findByUsername("Vet2").orElseThrow(), purgedCustomer);
+        String token = login(purgedCustomer.getUsername());
+        // Act
+        mvc.perform(delete(ADMIN_USERS_ENDPOINT).with(user(admin)).param("userId", purgedCustomer.getId().toString()).param("async", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.username").value(purgedCustomer.getUsername()));
+        // Assert
+        mvc.perform(get("/api/v1/users").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequestDTO(purgedCustomer.getUsername(), "Password"))))
+                .andExpect(status().isUnauthorized());
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (userRepository.existsById(purgedCustomer.getId()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertFalse(userRepository.existsById(purgedCustomer.getId()));
+        assertFalse(petRepository.existsById(pet.getId()));
+        assertFalse(visitRepository.existsById(visit.getId()));
+    }
+
+    @Test
+    void executeAdminControllerExportVisits_ShouldQuoteCsvValuesWithSeparatorsQuotesAndLineBreaks() throws Exception {
+        // Arrange
+        Visit visit = saveVisit(customerPet, userRepository.findByUsername("Vet1").orElseThrow(), customer);
+        visit.setDescription("Limping, \"badly\"\r\nsince Monday");
+        visitRepository.save(visit);
+        // Act
+        String csv = export("visits", "CSV");
+        visitRepository.deleteById(visit.getId());
+        // Assert
+        assertTrue(csv.startsWith("id,date,time,approved,description,userId,petId,vetId\r\n"));
+        assertTrue(csv.contains(visit.getId() + "," + visit.getDate() + "," + visit.getTime() + ",false,\"Limping, \"\"badly\"\"\r\nsince Monday\","
+                + customer.getId() + "," + customerPet.getId() + ","));
+    }
+
+    @Test
+    void executeAdminControllerExportUsers_ShouldWriteOneJsonObjectPerLineWithoutPasswords() throws Exception {
+        // Act
+        String ndjson = export("users", "NDJSON");
+        // Assert
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        assertTrue(ndjson.endsWith("\n"));
+        assertEquals(userRepository.count(), rows.size());
+        for (JsonNode row : rows) {
+            List<String> fields = new ArrayList<>();
+            row.fieldNames().forEachRemaining(fields::add);
+            assertEquals(List.of("id", "username", "email", "firstName", "lastName", "phoneNumber", "vetType", "createdAt"), fields);
+        }
+        assertTrue(rows.stream().anyMatch(row -> "Customer".equals(row.get("username").asText())));
+    }
+
+    @Test
+    void executeAdminControllerExportUsers_ShouldReturnStatusCodeBadRequestForAnUnknownFormat() throws Exception {
+        mvc.perform(get(EXPORT_ENDPOINT + "/users").with(user(admin)).param("format", "XML"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // The async dispatch, which writes the file, is permitted for everyone, so the first dispatch has to reject the request.
+    @Test
+    void executeAdminControllerExportUsers_ShouldRejectRequestsWithoutAnAdminToken() throws Exception {
+        mvc.perform(get(EXPORT_ENDPOINT + "/users"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(request().asyncNotStarted());
+        mvc.perform(get(EXPORT_ENDPOINT + "/users").header(HttpHeaders.AUTHORIZATION, "Bearer " + login("Customer")))
+                .andExpect(status().isForbidden())
+                .andExpect(request().asyncNotStarted());
+    }
+
+    @Test
+    void executeAdminControllerImportUsers_ShouldImportTheValidRowsAndReportTheOthersWithTheirLines() throws Exception {
+        // Arrange
+        String username = "Import" + ThreadLocalRandom.current().nextInt(1_000_000);
+        String csv = "username,password,email,firstName,lastName,phoneNumber,pets\r\n"
+                + username + ",Password," + username + "@vet.com,Imported,Customer,0888888888,Rex|Dog|Husky;Bella|Cat|Persian\r\n"
+                + username + "x,Password,not-an-email,Imported,Customer,0888888888,\r\n"
+                + "Customer,Password,customer@vet.com,Imported,Customer,0888888888,\r\n"
+                + username + ",Password,other" + username + "@vet.com,Imported,Customer,0888888888,\r\n"
+                + username + "y,Password\r\n";
+        // Act
+        ImportResultDTO result = importUsers("CSV", csv);
+        // Assert
+        assertEquals(1, result.getImportedUsers());
+        assertEquals(2, result.getImportedPets());
+        assertEquals(4, result.getFailedRows());
+        assertEquals(List.of(3L, 4L, 5L, 6L), result.getErrors().stream().map(ImportErrorDTO::getLine).toList());
+        assertTrue(result.getErrors().get(0).getMessage().contains("email"));
+        assertEquals("Username Customer already exists!", result.getErrors().get(1).getMessage());
+        assertEquals(String.format("Username %s appears more than once in the file!", username), result.getErrors().get(2).getMessage());
+        assertEquals("Expected 7 fields, but found 2!", result.getErrors().get(3).getMessage());
+        User imported = userRepository.findByUsername(username).orElseThrow();
+        assertEquals(2, petRepository.findAll().stream().filter(pet -> pet.getUser() != null && pet.getUser().getId().equals(imported.getId())).count());
+        assertTrue(userRepository.findByUsername(username + "x").isEmpty());
+    }
+
+    // The breed passes the validation, but not the length of its column, so the chunk fails and is saved again one row at a time.
+    @Test
+    void executeAdminControllerImportUsers_ShouldKeepTheValidRowsOfAChunkWhichFailedToSave() throws Exception {
+        // Arrange
+        String username = "Import" + ThreadLocalRandom.current().nextInt(1_000_000);
+        String ndjson = importLine(username + "a", "Husky") + "\n"
+                + importLine(username + "b", "H".repeat(300)) + "\n"
+                + "{not json\n"
+                + importLine(username + "c", "Persian") + "\n";
+        // Act
+        ImportResultDTO result = importUsers("NDJSON", ndjson);
+        // Assert
+        assertEquals(2, result.getImportedUsers());
+        assertEquals(2, result.getImportedPets());
+        assertEquals(2, result.getFailedRows());
+        assertEquals(List.of(2L, 3L), result.getErrors().stream().map(ImportErrorDTO::getLine).toList());
+        assertEquals(username + "b", result.getErrors().get(0).getUsername());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Could not be saved"));
+        assertTrue(result.getErrors().get(1).getMessage().startsWith("Malformed JSON"));
+        assertTrue(userRepository.findByUsername(username + "a").isPresent());
+        assertTrue(userRepository.findByUsername(username + "b").isEmpty());
+        assertTrue(userRepository.findByUsername(username + "c").isPresent());
+    }
+
+    @Test
+    void executeAdminControllerImportUsers_ShouldReturnStatusCodeBadRequestForACsvFileWithoutTheRequiredColumns() throws Exception {
+        mvc.perform(post(IMPORT_ENDPOINT).with(user(admin)).param("format", "CSV")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("username,password\r\nImported,Password\r\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ImportResultDTO importUsers(String format, String file) throws Exception {
+        String response = mvc.perform(post(IMPORT_ENDPOINT).with(user(admin)).param("format", format)
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(file))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, ImportResultDTO.class);
+    }
+
+    private String importLine(String username, String breed) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("username", username, "password", "Password", "email", username.toLowerCase() + "@vet.com",
+                "firstName", "Imported", "lastName", "Customer", "pets", List.of(Map.of("name", "Rex", "specie", "Dog", "breed", breed))));
+    }
+
+    private String export(String resource, String format) throws Exception {
+        MvcResult started = mvc.perform(get(EXPORT_ENDPOINT + "/" + resource).with(user(admin)).param("format", format))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource + "." + format.toLowerCase() + "\""))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private User saveUser(Role.RoleType roleType) {
+        String username = "Purge" + ThreadLocalRandom.current().nextInt(1_000_000);
+        Role role = roleRepository.findByAuthority(roleType).orElseThrow();
+        return userRepository.save(new User(username, passwordEncoder.encode("Password"), username.toLowerCase() + "@vetclinic.com",
+                "Purged", "User", "0888888888", null, Set.of(role)));
+    }
+
+    // Every visit gets a day of its own, so the visits of a vet never collide.
+    private Visit saveVisit(Pet pet, User vet, User bookedBy) {
+        Date date = Date.valueOf(LocalDate.now().plusDays(100 + ThreadLocalRandom.current().nextInt(10_000)));
+        return visitRepository.save(new Visit(date, Time.valueOf(LocalTime.of(10, 0)), false, "Yearly checkup visit", pet, vet, bookedBy));
+    }
+
+    private String login(String username) throws Exception {
+        String response = mvc.perform(post("/api/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequestDTO(username, "Password"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, JwtResponseDTO.class).getToken();
+    }
+}
@@ -0,0 +1,167 @@
+package com.uni.vetclinicapi.presentation.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uni.vetclinicapi.persistance.repository.RevokedTokenRepository;
+import com.uni.vetclinicapi.persistance.repository.UserRepository;
+import com.uni.vetclinicapi.security.util.JwtUtils;
+import com.uni.vetclinicapi.security.util.VerifiedJwtClaims;
+import com.uni.vetclinicapi.service.TokenRevocationService;
+import com.uni.vetclinicapi.service.dto.JwtResponseDTO;
+import com.uni.vetclinicapi.service.dto.LoginRequestDTO;
+import com.uni.vetclinicapi.service.dto.RefreshTokenRequestDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Date;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Not transactional, the revocations have to be committed to be found by a restarted revocation service.
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+class AuthenticationTokenControllerTest {
+
+    private static final String AUTH_ENDPOINT = "/api/v1/auth";
+
+    private static final String USERS_ENDPOINT = "/api/v1/users";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Test
+    void executeAuthenticationControllerRefresh_ShouldReturnNewTokens() throws Exception {
+        // Arrange
+        JwtResponseDTO loginTokens = login("Customer");
+        // Act
+        JwtResponseDTO refreshedTokens = objectMapper.readValue(refresh(loginTokens.getRefreshToken())
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), JwtResponseDTO.class);
+        // Assert
+        Assertions.assertNotEquals(loginTokens.getRefreshToken(), refreshedTokens.getRefreshToken());
+        mvc.perform(get(USERS_ENDPOINT).header(HttpHeaders.AUTHORIZATION, "Bearer " + refreshedTokens.getToken()))
+                .andExpect(status().isOk());
+        refresh(refreshedTokens.getRefreshToken()).andExpect(status().isOk());
+    }
+
+    @Test
+    void executeAuthenticationControllerRefresh_ShouldRejectARotatedRefreshTokenAlsoAfterARestart() throws Exception {
+        // Arrange
+        JwtResponseDTO loginTokens = login("Vet2");
+        refresh(loginTokens.getRefreshToken()).andExpect(status().isOk());
+        // Act + Assert
+        refresh(loginTokens.getRefreshToken()).andExpect(status().isUnauthorized());
+        Assertions.assertTrue(restartedRevocationService().isRevoked(jwtUtils.getVerifiedClaims(loginTokens.getRefreshToken())));
+    }
+
+    @Test
+    void executeAuthenticationControllerLogout_ShouldRevokeTheAccessAndTheRefreshToken() throws Exception {
+        // Arrange
+        JwtResponseDTO loginTokens = login("Customer");
+        // Act
+        mvc.perform(post(AUTH_ENDPOINT + "/logout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + loginTokens.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequestDTO(loginTokens.getRefreshToken()))))
+                .andExpect(status().isNoContent());
+        // Assert
+        mvc.perform(get(USERS_ENDPOINT).header(HttpHeaders.AUTHORIZATION, "Bearer " + loginTokens.getToken()))
+                .andExpect(status().isUnauthorized());
+        refresh(loginTokens.getRefreshToken()).andExpect(status().isUnauthorized());
+        TokenRevocationService restartedRevocationService = restartedRevocationService();
+        Assertions.assertTrue(restartedRevocationService.isRevoked(jwtUtils.getVerifiedClaims(loginTokens.getToken())));
+        Assertions.assertTrue(restartedRevocationService.isRevoked(jwtUtils.getVerifiedClaims(loginTokens.getRefreshToken())));
+    }
+
+    @Test
+    void executeAuthenticationControllerLogout_ShouldRevokeTheRefreshTokensOfAllSessions() throws Exception {
+        // Arrange
+        JwtResponseDTO firstSession = login("Admin");
+        JwtResponseDTO secondSession = login("Admin");
+        // Act
+        mvc.perform(post(AUTH_ENDPOINT + "/logout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + firstSession.getToken())
+                        .param("allSessions", "true"))
+                .andExpect(status().isNoContent());
+        // Assert
+        refresh(secondSession.getRefreshToken()).andExpect(status().isUnauthorized());
+        refresh(login("Admin").getRefreshToken()).andExpect(status().isOk());
+    }
+
+    @Test
+    void executeTokenRevocationService_ShouldKeepTheRevocationOfADeletedUserOnlyUntilItsTokensExpire() {
+        // Arrange
+        UUID deletedUserId = UUID.randomUUID();
+        VerifiedJwtClaims claims = new VerifiedJwtClaims("Deleted", deletedUserId, UUID.randomUUID().toString(), JwtUtils.ACCESS_TOKEN_TYPE, 0,
+                new Date(System.currentTimeMillis() + 60_000), Set.of("CUSTOMER"));
+        TokenRevocationService shortLivedRevocationService = newRevocationService(50);
+        shortLivedRevocationService.loadTokenVersions();
+        shortLivedRevocationService.revokeAllTokensOfDeletedUser(deletedUserId);
+        // Act
+        boolean actualRevokedAfterRestart = restartedRevocationService().isRevoked(claims);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline && revokedTokenRepository.findAll().stream().anyMatch(r -> deletedUserId.equals(r.getUserId()))) {
+            shortLivedRevocationService.sweepExpiredTokenIds();
+        }
+        // Assert
+        Assertions.assertTrue(actualRevokedAfterRestart);
+        Assertions.assertFalse(shortLivedRevocationService.isRevoked(claims));
+        Assertions.assertTrue(revokedTokenRepository.findAll().stream().noneMatch(r -> deletedUserId.equals(r.getUserId())));
+    }
+
+    private JwtResponseDTO login(String username) throws Exception {
+        String response = mvc.perform(post(AUTH_ENDPOINT + "/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new LoginRequestDTO(username, "Password"))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, JwtResponseDTO.class);
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mvc.perform(post(AUTH_ENDPOINT + "/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new RefreshTokenRequestDTO(refreshToken))));
+    }
+
+    // A new instance has only what it loads from the database, like the service after a restart.
+    private TokenRevocationService restartedRevocationService() {
+        TokenRevocationService revocationService = newRevocationService(1_209_600_000L);
+        revocationService.loadTokenVersions();
+        return revocationService;
+    }
+
+    private TokenRevocationService newRevocationService(long refreshExpirationMs) {
+        TokenRevocationService revocationService = new TokenRevocationService(userRepository, revokedTokenRepository);
+        ReflectionTestUtils.setField(revocationService, "expectedRevokedTokens", 1000);
+        ReflectionTestUtils.setField(revocationService, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(revocationService, "jwtRefreshExpirationMs", refreshExpirationMs);
+        return revocationService;
+    }
+}
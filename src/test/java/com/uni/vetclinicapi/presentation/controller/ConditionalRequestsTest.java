@@ -0,0 +1,219 @@
+package com.uni.vetclinicapi.presentation.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uni.vetclinicapi.persistance.entity.Medication;
+import com.uni.vetclinicapi.persistance.entity.Role;
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.persistance.repository.MedicationRepository;
+import com.uni.vetclinicapi.persistance.repository.RoleRepository;
+import com.uni.vetclinicapi.persistance.repository.UserRepository;
+import com.uni.vetclinicapi.persistance.repository.VisitRepository;
+import com.uni.vetclinicapi.service.VetScheduleService;
+import com.uni.vetclinicapi.service.dto.FullPetDTO;
+import com.uni.vetclinicapi.service.dto.PetDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Not transactional, the ETags change only after a commit, each test works on a customer of its own.
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+class ConditionalRequestsTest {
+
+    private static final String USERS_ENDPOINT = "/api/v1/users";
+
+    private static final String PETS_ENDPOINT = "/api/v1/users/pets";
+
+    private static final String VISITS_ENDPOINT = "/api/v1/users/visits";
+
+    private static final String MEDS_ENDPOINT = "/api/v1/meds";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private MedicationRepository medicationRepository;
+
+    @Autowired
+    private VetScheduleService vetScheduleService;
+
+    private User customer;
+
+    private final List<UUID> visitIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        customer = saveCustomer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        visitRepository.deleteAllByIdInBatch(visitIds);
+        vetScheduleService.visitsRemoved(visitIds);
+    }
+
+    @Test
+    void executeConditionalRequests_ShouldReturnStatusCodeNotModifiedForTheCurrentETag() throws Exception {
+        for (String endpoint : List.of(USERS_ENDPOINT, PETS_ENDPOINT, VISITS_ENDPOINT)) {
+            // Arrange
+            String eTag = eTag(customer, endpoint);
+            // Act + Assert
+            mvc.perform(get(endpoint).with(user(customer)).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                    .andExpect(content().string(""));
+        }
+        User vet = userRepository.findByUsername("Vet1").orElseThrow();
+        mvc.perform(get(MEDS_ENDPOINT).with(user(vet)).header(HttpHeaders.IF_NONE_MATCH, eTag(vet, MEDS_ENDPOINT)))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void executeConditionalRequests_ShouldChangeThePetsETagOnEveryWriteOfAPet() throws Exception {
+        // Arrange
+        String createdETag = eTag(customer, PETS_ENDPOINT);
+        // Act + Assert
+        String response = mvc.perform(post("/api/v1/pets").with(user(customer))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PetDTO("Charlie", "Dog", "Husky"))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        UUID petId = objectMapper.readValue(response, FullPetDTO.class).getId();
+        String updatedETag = assertChanged(createdETag, PETS_ENDPOINT);
+
+        mvc.perform(patch(PETS_ENDPOINT).with(user(customer)).param("petId", petId.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"breed\":\"Labrador\"}"))
+                .andExpect(status().isOk());
+        String deletedETag = assertChanged(updatedETag, PETS_ENDPOINT);
+
+        mvc.perform(delete(PETS_ENDPOINT).with(user(customer)).param("petId", petId.toString()))
+                .andExpect(status().isOk());
+        assertChanged(deletedETag, PETS_ENDPOINT);
+    }
+
+    @Test
+    void executeConditionalRequests_ShouldChangeTheVisitsETagOnANewVisitAndOnAnUpdatedVet() throws Exception {
+        // Arrange
+        String response = mvc.perform(post("/api/v1/pets").with(user(customer))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PetDTO("Charlie", "Dog", "Husky"))))
+                .andReturn().getResponse().getContentAsString();
+        UUID petId = objectMapper.readValue(response, FullPetDTO.class).getId();
+        User vet = userRepository.findByUsername("Vet1").orElseThrow();
+        String visitsETag = eTag(customer, VISITS_ENDPOINT);
+        Map<String, Object> visit = Map.of("date", Date.valueOf(LocalDate.now().plusDays(300 + ThreadLocalRandom.current().nextInt(10_000))).toString(),
+                "time", "10:00:00", "description", "Yearly checkup visit", "pet", Map.of("id", petId), "vet", Map.of("id", vet.getId()));
+        // Act + Assert
+        String visitResponse = mvc.perform(post("/api/v1/visits").with(user(customer))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(visit)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        visitIds.add(UUID.fromString(objectMapper.readTree(visitResponse).get("id").asText()));
+        String bookedETag = assertChanged(visitsETag, VISITS_ENDPOINT);
+
+        User admin = userRepository.findByUsername("Admin").orElseThrow();
+        mvc.perform(patch(USERS_ENDPOINT).with(user(admin)).param("userId", vet.getId().toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fName\":\"" + vet.getFName() + "\"}"))
+                .andExpect(status().isOk());
+        assertChanged(bookedETag, VISITS_ENDPOINT);
+    }
+
+    @Test
+    void executeConditionalRequests_ShouldChangeTheMedicationsETagOnAnUpdatedMedication() throws Exception {
+        // Arrange
+        User vet = userRepository.findByUsername("Vet1").orElseThrow();
+        Medication medication = medicationRepository.save(new Medication("Amoxicillin", "Antibiotic", 10, "Twice a day"));
+        String eTag = eTag(vet, MEDS_ENDPOINT);
+        // Act
+        mvc.perform(patch(MEDS_ENDPOINT).with(user(vet)).param("medId", medication.getId().toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\":\"Once a day\"}"))
+                .andExpect(status().isOk());
+        // Assert
+        mvc.perform(get(MEDS_ENDPOINT).with(user(vet)).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk());
+        assertNotEquals(eTag, eTag(vet, MEDS_ENDPOINT));
+        medicationRepository.deleteById(medication.getId());
+    }
+
+    @Test
+    void executeConditionalRequests_ShouldNeverMatchTheETagOfAnotherUsersResource() throws Exception {
+        // Arrange
+        User otherCustomer = saveCustomer();
+        for (String endpoint : List.of(USERS_ENDPOINT, PETS_ENDPOINT, VISITS_ENDPOINT)) {
+            String eTag = eTag(customer, endpoint);
+            // Act + Assert
+            assertNotEquals(eTag, eTag(otherCustomer, endpoint));
+            mvc.perform(get(endpoint).with(user(otherCustomer)).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    private String eTag(User user, String endpoint) throws Exception {
+        String eTag = mvc.perform(get(endpoint).with(user(user)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        return eTag;
+    }
+
+    // The old ETag isn't current anymore, so the customer gets the resource again with a new one.
+    private String assertChanged(String oldETag, String endpoint) throws Exception {
+        mvc.perform(get(endpoint).with(user(customer)).header(HttpHeaders.IF_NONE_MATCH, oldETag))
+                .andExpect(status().isOk());
+        String newETag = eTag(customer, endpoint);
+        assertNotEquals(oldETag, newETag);
+        return newETag;
+    }
+
+    private User saveCustomer() {
+        String username = "ETag" + ThreadLocalRandom.current().nextInt(1_000_000);
+        Role role = roleRepository.findByAuthority(Role.RoleType.CUSTOMER).orElseThrow();
+        return userRepository.save(new User(username, "{noop}Password", username.toLowerCase() + "@vetclinic.com",
+                "Polling", "Customer", "0888888888", null, Set.of(role)));
+    }
+}
@@ -0,0 +1,86 @@
+package com.uni.vetclinicapi.presentation.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uni.vetclinicapi.service.PasswordHashingService;
+import com.uni.vetclinicapi.service.dto.LoginRequestDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A pool of one thread with room for one waiting task, which the test fills up before it logs in.
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@TestPropertySource(properties = {"app.passwordHashingThreads=1", "app.passwordHashingQueueCapacity=1", "app.passwordHashingRetryAfterSeconds=3"})
+class PasswordHashingOverloadTest {
+
+    private static final String LOGIN_ENDPOINT = "/api/v1/auth/login";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void executeAuthenticationControllerLogin_ShouldReturnStatusCodeServiceUnavailableWhenTheHashingQueueIsFull() throws Exception {
+        // Arrange
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            callers.submit(() -> passwordHashingService.encode(() -> {
+                running.countDown();
+                return awaitQuietly(release);
+            }));
+            assertTrue(running.await(10, TimeUnit.SECONDS));
+            callers.submit(() -> passwordHashingService.encode(() -> awaitQuietly(release)));
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (meterRegistry.get("auth.password.hashing.queue.depth").gauge().value() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            // Act + Assert
+            mvc.perform(post(LOGIN_ENDPOINT)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new LoginRequestDTO("Customer", "Password"))))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
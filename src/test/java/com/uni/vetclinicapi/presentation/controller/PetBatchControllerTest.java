@@ -0,0 +1,108 @@
+package com.uni.vetclinicapi.presentation.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.persistance.repository.PetRepository;
+import com.uni.vetclinicapi.persistance.repository.UserRepository;
+import com.uni.vetclinicapi.service.dto.PetBatchResultDTO;
+import com.uni.vetclinicapi.service.dto.PetDTO;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+class PetBatchControllerTest {
+
+    private static final String PETS_BATCH_ENDPOINT = "/api/v1/pets/batch";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    private User customer;
+
+    @BeforeEach
+    void setUp() {
+        customer = userRepository.findByUsername("Customer").orElseThrow();
+    }
+
+    @Test
+    void executePetControllerCreatePets_ShouldReturnTheResultOfEveryPetInTheOrderOfTheRequest() throws Exception {
+        // Arrange
+        List<PetDTO> petDTOs = List.of(
+                new PetDTO("Luna", "Cat", "Persian"),
+                new PetDTO("Luna", "Dog", "Husky"),
+                new PetDTO("Pet1", "Dog", "Husky"),
+                new PetDTO("Ab", "Dog", "Husky"),
+                new PetDTO("Max", "Dog", "Beagle"));
+        // Act
+        String response = mvc.perform(post(PETS_BATCH_ENDPOINT).with(user(customer))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(petDTOs)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<PetBatchResultDTO> results = Arrays.asList(objectMapper.readValue(response, PetBatchResultDTO[].class));
+        // Assert
+        assertEquals(List.of(0, 1, 2, 3, 4), results.stream().map(PetBatchResultDTO::getIndex).toList());
+        assertEquals(List.of(201, 409, 409, 400, 201), results.stream().map(PetBatchResultDTO::getStatus).toList());
+        assertEquals("Luna", results.get(0).getPet().getName());
+        assertEquals("Cat", results.get(0).getPet().getSpecie());
+        assertEquals("Max", results.get(4).getPet().getName());
+        assertEquals("Pet name Luna appears more than once in the request!", results.get(1).getMessage());
+        assertEquals("Pet with the same name: Pet1 and owner: Customer already exists!", results.get(2).getMessage());
+        assertTrue(results.get(3).getMessage().startsWith("name "));
+        assertTrue(results.subList(1, 4).stream().allMatch(result -> result.getPet() == null));
+        assertEquals(1, petRepository.findAll().stream()
+                .filter(pet -> pet.getUser() != null && pet.getUser().getId().equals(customer.getId()) && pet.getName().equals("Luna")).count());
+    }
+
+    @Test
+    void executePetControllerCreatePets_ShouldReturnStatusCodeBadRequestForAnEmptyBatch() throws Exception {
+        mvc.perform(post(PETS_BATCH_ENDPOINT).with(user(customer))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void executePetControllerCreatePets_ShouldReturnStatusCodeBadRequestForABatchOverTheSizeLimit() throws Exception {
+        // Arrange
+        List<PetDTO> petDTOs = new ArrayList<>();
+        for (int i = 0; i <= 100; i++) {
+            petDTOs.add(new PetDTO("Batch" + i, "Dog", "Husky"));
+        }
+        // Act + Assert
+        mvc.perform(post(PETS_BATCH_ENDPOINT).with(user(customer))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(petDTOs)))
+                .andExpect(status().isBadRequest());
+        assertTrue(petRepository.findAll().stream().noneMatch(pet -> pet.getName().equals("Batch0")));
+    }
+}
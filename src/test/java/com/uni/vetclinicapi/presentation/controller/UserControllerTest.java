@@ -1,12 +1,25 @@
 package com.uni.vetclinicapi.presentation.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uni.vetclinicapi.service.dto.UserInfoDTO;
 import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -14,4 +27,42 @@ import static org.junit.jupiter.api.Assertions.*;
 @AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
 class UserControllerTest {
 
-}
\ No newline at end of file
+    private static final String VETS_ENDPOINT = "/api/v1/users/vets";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @WithMockUser(authorities = {"CUSTOMER"})
+    @Test
+    void executeUserControllerGetAllVets_ShouldReturnEveryVetOncePageByPage() throws Exception {
+        // Arrange
+        List<String> usernames = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        // Act
+        do {
+            MvcResult result = mvc.perform(cursor == null
+                            ? get(VETS_ENDPOINT).param("size", "3")
+                            : get(VETS_ENDPOINT).param("size", "3").param("after", cursor))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            UserInfoDTO[] vets = objectMapper.readValue(result.getResponse().getContentAsString(), UserInfoDTO[].class);
+            Arrays.stream(vets).map(UserInfoDTO::getUsername).forEach(usernames::add);
+            cursor = result.getResponse().getHeader(CursorPageHeaders.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+        // Assert
+        assertEquals(2, pages);
+        assertEquals(List.of("Vet1", "Vet2", "Vet3", "Vet3"), usernames);
+    }
+
+    @WithMockUser(authorities = {"CUSTOMER"})
+    @Test
+    void executeUserControllerGetAllVets_ShouldReturnStatusCodeBadRequestForInvalidCursor() throws Exception {
+        mvc.perform(get(VETS_ENDPOINT).param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+}
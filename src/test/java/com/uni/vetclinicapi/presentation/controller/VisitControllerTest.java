@@ -0,0 +1,266 @@
+package com.uni.vetclinicapi.presentation.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uni.vetclinicapi.persistance.entity.Pet;
+import com.uni.vetclinicapi.persistance.entity.User;
+import com.uni.vetclinicapi.persistance.entity.Visit;
+import com.uni.vetclinicapi.persistance.repository.PetRepository;
+import com.uni.vetclinicapi.persistance.repository.UserRepository;
+import com.uni.vetclinicapi.persistance.repository.VisitRepository;
+import com.uni.vetclinicapi.service.VetScheduleService;
+import com.uni.vetclinicapi.service.dto.AvailableSlotDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Not transactional, the concurrent bookings have to commit to see each other, so the visits are deleted after every test.
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+class VisitControllerTest {
+
+    private static final String VISITS_ENDPOINT = "/api/v1/visits";
+
+    private static final String AVAILABILITY_ENDPOINT = "/api/v1/visits/availability";
+
+    private static final int CONCURRENT_BOOKINGS = 48;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PetRepository petRepository;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private VetScheduleService vetScheduleService;
+
+    private User customer;
+
+    private User vet;
+
+    private Pet pet;
+
+    private final List<Date> bookedDates = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        customer = userRepository.findByUsername("Customer").orElseThrow();
+        vet = userRepository.findByUsername("Vet2").orElseThrow();
+        pet = petRepository.findAll().stream().filter(p -> p.getUser() != null && p.getUser().getId().equals(customer.getId())).findFirst().orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<UUID> visitIds = visitRepository.findAll().stream().filter(visit -> bookedDates.contains(visit.getDate())).map(Visit::getId).toList();
+        visitRepository.deleteAllByIdInBatch(visitIds);
+        vetScheduleService.visitsRemoved(visitIds);
+    }
+
+    @Test
+    void executeVisitControllerAddVisit_ShouldBookOnlyOneOfManyConcurrentOverlappingVisits() throws Exception {
+        // Arrange
+        Date date = Date.valueOf(LocalDate.now().plusDays(10));
+        bookedDates.add(date);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_BOOKINGS);
+        List<Future<Integer>> statuses = new ArrayList<>();
+        // Act
+        for (int i = 0; i < CONCURRENT_BOOKINGS; i++) {
+            // Every time lies within the length of a visit from every other one, so all of them overlap.
+            Time time = Time.valueOf(LocalTime.of(10, 0).plusMinutes(i % 6 * 5L));
+            statuses.add(executor.submit(() -> {
+                start.await();
+                return bookVisit(date, time);
+            }));
+        }
+        start.countDown();
+        int created = 0;
+        int rejected = 0;
+        for (Future<Integer> status : statuses) {
+            int statusCode = status.get();
+            created += statusCode == 201 ? 1 : 0;
+            rejected += statusCode == 400 ? 1 : 0;
+        }
+        executor.shutdown();
+        // Assert
+        assertEquals(1, created);
+        assertEquals(CONCURRENT_BOOKINGS - 1, rejected);
+        assertEquals(1, visitRepository.findAll().stream().filter(visit -> date.equals(visit.getDate()) && vet.getId().equals(visit.getVet().getId())).count());
+    }
+
+    @Test
+    void executeVisitControllerAddVisit_ShouldReturnStatusCodeBadRequestForATimeTakenOutsideTheSchedule() throws Exception {
+        // Arrange
+        Date date = Date.valueOf(LocalDate.now().plusDays(11));
+        Time time = Time.valueOf(LocalTime.of(10, 0));
+        bookedDates.add(date);
+        // Saved directly, the way another instance would, so the in-memory schedule of this one doesn't know the visit.
+        visitRepository.save(new Visit(date, time, false, "Booked elsewhere", pet, vet, customer));
+        // Act
+        int statusCode = bookVisit(date, time);
+        // Assert
+        assertEquals(400, statusCode);
+    }
+
+    // A visit put into the schedule again replaces its earlier interval, so removing the visit once frees every time it held.
+    @Test
+    void executeVisitControllerAddVisit_ShouldFreeEveryTimeOfAVisitAddedToTheScheduleTwice() throws Exception {
+        // Arrange
+        Date date = Date.valueOf(LocalDate.now().plusDays(12));
+        bookedDates.add(date);
+        Visit visit = visitRepository.save(new Visit(date, Time.valueOf(LocalTime.of(10, 0)), false, "Booked twice", pet, vet, customer));
+        vetScheduleService.visitAdded(visit);
+        visit.setTime(Time.valueOf(LocalTime.of(11, 0)));
+        vetScheduleService.visitAdded(visit);
+        visitRepository.deleteById(visit.getId());
+        vetScheduleService.visitsRemoved(List.of(visit.getId()));
+        // Act
+        int firstStatusCode = bookVisit(date, Time.valueOf(LocalTime.of(10, 15)));
+        int secondStatusCode = bookVisit(date, Time.valueOf(LocalTime.of(11, 15)));
+        // Assert
+        assertEquals(201, firstStatusCode);
+        assertEquals(201, secondStatusCode);
+    }
+
+    @Test
+    void executeVisitControllerFindAvailableSlots_ShouldNotReturnTheSlotOfABookedVisit() throws Exception {
+        // Arrange
+        Date date = Date.valueOf(LocalDate.now().plusDays(13));
+        bookedDates.add(date);
+        List<Time> timesBefore = findFreeTimes(date);
+        // Act
+        int statusCode = bookVisit(date, Time.valueOf(LocalTime.of(10, 0)));
+        List<Time> timesAfter = findFreeTimes(date);
+        // Assert
+        assertEquals(201, statusCode);
+        assertTrue(timesBefore.contains(Time.valueOf(LocalTime.of(10, 0))));
+        assertFalse(timesAfter.contains(Time.valueOf(LocalTime.of(10, 0))));
+        assertTrue(timesAfter.contains(Time.valueOf(LocalTime.of(9, 30))));
+        assertTrue(timesAfter.contains(Time.valueOf(LocalTime.of(10, 30))));
+        assertEquals(timesBefore.size() - 1, timesAfter.size());
+    }
+
+    // Visits at 10:00 and 10:15 share the slot from 10:00, the one at 10:15 also takes the slot from 10:30.
+    @Test
+    void executeVisitControllerFindAvailableSlots_ShouldKeepASlotTakenWhileAnotherVisitOverlapsIt() throws Exception {
+        // Arrange
+        Date date = Date.valueOf(LocalDate.now().plusDays(14));
+        bookedDates.add(date);
+        Visit firstVisit = visitRepository.save(new Visit(date, Time.valueOf(LocalTime.of(10, 0)), false, "First overlapping visit", pet, vet, customer));
+        Visit secondVisit = visitRepository.save(new Visit(date, Time.valueOf(LocalTime.of(10, 15)), false, "Second overlapping visit", pet, vet, customer));
+        vetScheduleService.visitAdded(firstVisit);
+        vetScheduleService.visitAdded(secondVisit);
+        // Act
+        visitRepository.deleteById(firstVisit.getId());
+        vetScheduleService.visitsRemoved(List.of(firstVisit.getId()));
+        List<Time> timesAfterFirstRemoval = findFreeTimes(date);
+        visitRepository.deleteById(secondVisit.getId());
+        vetScheduleService.visitsRemoved(List.of(secondVisit.getId()));
+        List<Time> timesAfterSecondRemoval = findFreeTimes(date);
+        // Assert
+        assertFalse(timesAfterFirstRemoval.contains(Time.valueOf(LocalTime.of(10, 0))));
+        assertFalse(timesAfterFirstRemoval.contains(Time.valueOf(LocalTime.of(10, 30))));
+        assertTrue(timesAfterSecondRemoval.contains(Time.valueOf(LocalTime.of(10, 0))));
+        assertTrue(timesAfterSecondRemoval.contains(Time.valueOf(LocalTime.of(10, 30))));
+    }
+
+    @Test
+    void executeVisitControllerFindAvailableSlots_ShouldReturnOnlyTheSlotsOfVetsOfTheGivenType() throws Exception {
+        // Arrange
+        String date = LocalDate.now().plusDays(15).toString();
+        Set<UUID> expectedVetIds = Set.of(userRepository.findByUsername("Vet1").orElseThrow().getId(),
+                userRepository.findAll().stream().filter(user -> "Bogomil".equals(user.getFName())).findFirst().orElseThrow().getId());
+        // Act
+        AvailableSlotDTO[] actualSlots = objectMapper.readValue(mvc.perform(get(AVAILABILITY_ENDPOINT)
+                        .with(user(customer))
+                        .param("from", date)
+                        .param("to", date)
+                        .param("vetType", "surgeon")
+                        .param("size", "100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), AvailableSlotDTO[].class);
+        // Assert
+        assertTrue(Arrays.stream(actualSlots).allMatch(slot -> "Surgeon".equals(slot.getVetType())));
+        assertEquals(expectedVetIds, Arrays.stream(actualSlots).map(AvailableSlotDTO::getVetId).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void executeVisitControllerFindAvailableSlots_ShouldReturnStatusCodeBadRequestForAnInvalidDateRange() throws Exception {
+        // Arrange
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        List<List<LocalDate>> invalidRanges = List.of(
+                List.of(tomorrow, tomorrow.minusDays(1)),
+                List.of(tomorrow, tomorrow.plusDays(31)),
+                List.of(LocalDate.now().minusDays(1), tomorrow));
+        for (List<LocalDate> range : invalidRanges) {
+            // Act + Assert
+            mvc.perform(get(AVAILABILITY_ENDPOINT)
+                            .with(user(customer))
+                            .param("from", range.get(0).toString())
+                            .param("to", range.get(1).toString()))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private List<Time> findFreeTimes(Date date) throws Exception {
+        AvailableSlotDTO[] slots = objectMapper.readValue(mvc.perform(get(AVAILABILITY_ENDPOINT)
+                        .with(user(customer))
+                        .param("from", date.toString())
+                        .param("to", date.toString())
+                        .param("vetId", vet.getId().toString())
+                        .param("size", "100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), AvailableSlotDTO[].class);
+        return Arrays.stream(slots).map(AvailableSlotDTO::getTime).toList();
+    }
+
+    private int bookVisit(Date date, Time time) throws Exception {
+        Map<String, Object> visit = Map.of("date", date.toString(), "time", time.toString(), "description", "Yearly checkup visit",
+                "pet", Map.of("id", pet.getId()), "vet", Map.of("id", vet.getId()));
+        return mvc.perform(post(VISITS_ENDPOINT)
+                        .with(user(customer))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(visit)))
+                .andReturn().getResponse().getStatus();
+    }
+}
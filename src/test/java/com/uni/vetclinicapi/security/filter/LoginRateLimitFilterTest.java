@@ -0,0 +1,47 @@
+package com.uni.vetclinicapi.security.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+class LoginRateLimitFilterTest {
+
+    private static final String LOGIN_ENDPOINT = "/api/v1/auth/login";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void executeLoginRateLimitFilter_ShouldReturnStatusCodePayloadTooLargeForABodyOverTheLimit() throws Exception {
+        // Arrange
+        String body = "{\"username\":\"Customer\",\"password\":\"" + "x".repeat(8192) + "\"}";
+        // Act + Assert
+        mvc.perform(post(LOGIN_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.status").value("PAYLOAD_TOO_LARGE"));
+    }
+
+    @Test
+    void executeLoginRateLimitFilter_ShouldPassTheBodyOnToTheLogin() throws Exception {
+        // Act + Assert
+        mvc.perform(post(LOGIN_ENDPOINT)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"Customer\",\"password\":\"Password\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists());
+    }
+}
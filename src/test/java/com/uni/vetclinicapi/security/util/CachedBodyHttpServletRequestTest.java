@@ -0,0 +1,55 @@
+package com.uni.vetclinicapi.security.util;
+
+import jakarta.servlet.ReadListener;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class CachedBodyHttpServletRequestTest {
+
+    @Test
+    void executeCachedBodyHttpServletRequest_ShouldRejectABodyOverTheLimitWithoutADeclaredLength() {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest() {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setContent(new byte[65]);
+        // Act + Assert
+        Assertions.assertThrows(CachedBodyHttpServletRequest.BodyTooLargeException.class, () -> new CachedBodyHttpServletRequest(request, 64));
+    }
+
+    @Test
+    void executeCachedBodyHttpServletRequestSetReadListener_ShouldReportTheWholeBodyAsRead() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setContent("{\"username\":\"Customer\"}".getBytes());
+        CachedBodyHttpServletRequest cachedBodyRequest = new CachedBodyHttpServletRequest(request, 64);
+        List<String> events = new ArrayList<>();
+        // Act
+        cachedBodyRequest.getInputStream().setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() {
+                events.add("dataAvailable");
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("allDataRead");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+        // Assert
+        Assertions.assertEquals(List.of("dataAvailable", "allDataRead"), events);
+        Assertions.assertArrayEquals(request.getContentAsByteArray(), cachedBodyRequest.getInputStream().readAllBytes());
+    }
+}
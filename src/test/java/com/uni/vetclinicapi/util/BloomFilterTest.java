@@ -0,0 +1,42 @@
+package com.uni.vetclinicapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+class BloomFilterTest {
+
+    @Test
+    void executeBloomFilterMightContain_ShouldFindEveryAddedValue() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        String[] tokenIds = new String[1000];
+        for (int i = 0; i < tokenIds.length; i++) {
+            tokenIds[i] = UUID.randomUUID().toString();
+            filter.add(tokenIds[i]);
+        }
+        // Act & Assert
+        for (String tokenId : tokenIds) {
+            Assertions.assertTrue(filter.mightContain(tokenId));
+        }
+    }
+
+    @Test
+    void executeBloomFilterMightContain_ShouldRarelyFindValuesNotAdded() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        // Assert
+        Assertions.assertTrue(falsePositives < 300, "False positives: " + falsePositives);
+    }
+}
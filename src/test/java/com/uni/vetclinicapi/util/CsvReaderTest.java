@@ -0,0 +1,53 @@
+package com.uni.vetclinicapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+class CsvReaderTest {
+
+    @Test
+    void executeCsvReaderReadRecord_ShouldSplitPlainAndQuotedFields() throws IOException {
+        // Arrange
+        CsvReader csvReader = new CsvReader(new StringReader("name,specie\r\n\"Rex, Jr.\",\"Dog \"\"Bulldog\"\"\"\r\n"));
+        // Act
+        List<String> actualHeader = csvReader.readRecord();
+        List<String> actualRecord = csvReader.readRecord();
+        List<String> actualEnd = csvReader.readRecord();
+        // Assert
+        Assertions.assertEquals(List.of("name", "specie"), actualHeader);
+        Assertions.assertEquals(List.of("Rex, Jr.", "Dog \"Bulldog\""), actualRecord);
+        Assertions.assertNull(actualEnd);
+    }
+
+    @Test
+    void executeCsvReaderReadRecord_ShouldKeepLineBreaksInQuotedFieldsAndCountLines() throws IOException {
+        // Arrange
+        CsvReader csvReader = new CsvReader(new StringReader("a,\"first\nsecond\"\n\nb,,\nc"));
+        // Act
+        List<String> actualFirst = csvReader.readRecord();
+        long actualFirstLine = csvReader.getRecordLineNumber();
+        List<String> actualSecond = csvReader.readRecord();
+        long actualSecondLine = csvReader.getRecordLineNumber();
+        List<String> actualThird = csvReader.readRecord();
+        long actualThirdLine = csvReader.getRecordLineNumber();
+        // Assert
+        Assertions.assertEquals(List.of("a", "first\nsecond"), actualFirst);
+        Assertions.assertEquals(1, actualFirstLine);
+        Assertions.assertEquals(List.of("b", "", ""), actualSecond);
+        Assertions.assertEquals(4, actualSecondLine);
+        Assertions.assertEquals(List.of("c"), actualThird);
+        Assertions.assertEquals(5, actualThirdLine);
+    }
+
+    @Test
+    void executeCsvReaderReadRecord_ShouldFailOnUnclosedQuote() {
+        // Arrange
+        CsvReader csvReader = new CsvReader(new StringReader("a,\"open"));
+        // Act & Assert
+        Assertions.assertThrows(IOException.class, csvReader::readRecord);
+    }
+}
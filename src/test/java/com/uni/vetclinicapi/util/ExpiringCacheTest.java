@@ -0,0 +1,61 @@
+package com.uni.vetclinicapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ExpiringCacheTest {
+
+    @Test
+    void executeExpiringCacheGet_ShouldReturnValueBeforeExpiration() {
+        // Arrange
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+        cache.put("token", "claims", System.currentTimeMillis() + 60_000);
+        // Act
+        String actualValue = cache.get("token");
+        // Assert
+        Assertions.assertEquals("claims", actualValue);
+    }
+
+    @Test
+    void executeExpiringCacheGet_ShouldNotReturnExpiredValue() {
+        // Arrange
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+        cache.put("token", "claims", System.currentTimeMillis() - 1);
+        // Act
+        String actualValue = cache.get("token");
+        // Assert
+        Assertions.assertNull(actualValue);
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void executeExpiringCachePut_ShouldNotGrowPastMaxSize() {
+        // Arrange
+        int maxSize = 100;
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(maxSize);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        // Act
+        for (int i = 0; i < maxSize * 5; i++) {
+            cache.put(i, i, expiresAt);
+        }
+        // Assert
+        Assertions.assertTrue(cache.size() <= maxSize);
+        Assertions.assertEquals(maxSize * 5 - 1, cache.get(maxSize * 5 - 1));
+    }
+
+    @Test
+    void executeExpiringCacheInvalidate_ShouldCountHitsMissesAndEvictions() {
+        // Arrange
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10);
+        cache.put("user", "principal", System.currentTimeMillis() + 60_000);
+        // Act
+        cache.get("user");
+        cache.invalidate("user");
+        cache.get("user");
+        // Assert
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(1, cache.getMissCount());
+        Assertions.assertEquals(1, cache.getEvictionCount());
+        Assertions.assertEquals(1, cache.getPutCount());
+    }
+}
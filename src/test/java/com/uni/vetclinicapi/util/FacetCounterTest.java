@@ -0,0 +1,63 @@
+package com.uni.vetclinicapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+class FacetCounterTest {
+
+    @Test
+    void executeFacetCounterCount_ShouldCountEachFacetWithinTheOtherOne() {
+        // Arrange
+        FacetCounter<String, String> counter = new FacetCounter<>();
+        counter.add("Dog", "Boxer", 3);
+        counter.add("Dog", "Pug", 1);
+        counter.add("Cat", "Persian", 2);
+        // Act
+        Map<String, Long> actualSpecies = counter.countByFirst(null);
+        Map<String, Long> actualDogBreeds = counter.countBySecond("Dog");
+        long actualPugs = counter.count("Dog", "Pug");
+        // Assert
+        Assertions.assertEquals(List.of("Dog", "Cat"), new ArrayList<>(actualSpecies.keySet()));
+        Assertions.assertEquals(Map.of("Dog", 4L, "Cat", 2L), actualSpecies);
+        Assertions.assertEquals(Map.of("Boxer", 3L, "Pug", 1L), actualDogBreeds);
+        Assertions.assertEquals(1, actualPugs);
+    }
+
+    @Test
+    void executeFacetCounterAdd_ShouldSkipPairsCountedDownToZero() {
+        // Arrange
+        FacetCounter<String, String> counter = new FacetCounter<>();
+        counter.add("Dog", "Boxer", 1);
+        counter.add("Dog", "Pug", 1);
+        // Act
+        counter.add("Dog", "Pug", -1);
+        // Assert
+        Assertions.assertEquals(Map.of("Boxer", 1L), counter.countBySecond(null));
+        Assertions.assertEquals(1, counter.count(null, null));
+    }
+
+    @Test
+    void executeFacetCounterAdd_ShouldNotLoseConcurrentUpdates() throws InterruptedException {
+        // Arrange
+        FacetCounter<String, String> counter = new FacetCounter<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    counter.add("Dog", "Boxer", 1);
+                }
+            }));
+        }
+        // Act
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // Assert
+        Assertions.assertEquals(80_000, counter.count("Dog", "Boxer"));
+    }
+}
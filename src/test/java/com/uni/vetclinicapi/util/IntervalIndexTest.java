@@ -0,0 +1,84 @@
+package com.uni.vetclinicapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class IntervalIndexTest {
+
+    @Test
+    void executeIntervalIndexOverlaps_ShouldFindOnlyOverlappingIntervalsOfTheSameKey() {
+        // Arrange
+        IntervalIndex<String, Integer> index = new IntervalIndex<>();
+        index.add("Vet1", 540, 570, 1);
+        // Act
+        boolean actualOverlapping = index.overlaps("Vet1", 555, 585);
+        boolean actualAdjacentAfter = index.overlaps("Vet1", 570, 600);
+        boolean actualAdjacentBefore = index.overlaps("Vet1", 510, 540);
+        boolean actualOtherKey = index.overlaps("Vet2", 555, 585);
+        // Assert
+        Assertions.assertTrue(actualOverlapping);
+        Assertions.assertFalse(actualAdjacentAfter);
+        Assertions.assertFalse(actualAdjacentBefore);
+        Assertions.assertFalse(actualOtherKey);
+    }
+
+    @Test
+    void executeIntervalIndexAdd_ShouldKeepAnOverlappingIntervalAfterTheOtherIsRemoved() {
+        // Arrange
+        IntervalIndex<String, Integer> index = new IntervalIndex<>();
+        index.add("Vet1", 540, 570, 1);
+        index.add("Vet1", 555, 585, 2);
+        // Act
+        boolean actualRemoved = index.remove("Vet1", 540, 570, 1);
+        boolean actualStillOverlapping = index.overlaps("Vet1", 540, 570);
+        boolean actualFreedBefore = index.overlaps("Vet1", 540, 555);
+        // Assert
+        Assertions.assertTrue(actualRemoved);
+        Assertions.assertTrue(actualStillOverlapping);
+        Assertions.assertFalse(actualFreedBefore);
+    }
+
+    @Test
+    void executeIntervalIndexOverlaps_ShouldFindLongIntervalsStartingFarBefore() {
+        // Arrange
+        IntervalIndex<String, Integer> index = new IntervalIndex<>();
+        index.add("Vet1", 0, 600, 1);
+        index.add("Vet1", 590, 595, 2);
+        // Act
+        boolean actualInside = index.overlaps("Vet1", 300, 310);
+        boolean actualAfter = index.overlaps("Vet1", 600, 610);
+        // Assert
+        Assertions.assertTrue(actualInside);
+        Assertions.assertFalse(actualAfter);
+    }
+
+    @Test
+    void executeIntervalIndexRemove_ShouldFreeTheInterval() {
+        // Arrange
+        IntervalIndex<String, Integer> index = new IntervalIndex<>();
+        index.add("Vet1", 540, 570, 1);
+        index.add("Vet1", 540, 570, 2);
+        // Act
+        boolean actualRemoved = index.remove("Vet1", 540, 570, 1);
+        boolean actualStillTaken = index.overlaps("Vet1", 540, 570);
+        index.remove("Vet1", 540, 570, 2);
+        // Assert
+        Assertions.assertTrue(actualRemoved);
+        Assertions.assertTrue(actualStillTaken);
+        Assertions.assertFalse(index.overlaps("Vet1", 540, 570));
+        Assertions.assertFalse(index.remove("Vet1", 540, 570, 1));
+    }
+
+    @Test
+    void executeIntervalIndexRemoveKeys_ShouldDropOnlyTheMatchingKeys() {
+        // Arrange
+        IntervalIndex<String, Integer> index = new IntervalIndex<>();
+        index.add("Vet1", 540, 570, 1);
+        index.add("Vet2", 540, 570, 2);
+        // Act
+        index.removeKeys("Vet1"::equals);
+        // Assert
+        Assertions.assertFalse(index.overlaps("Vet1", 540, 570));
+        Assertions.assertTrue(index.overlaps("Vet2", 540, 570));
+    }
+}
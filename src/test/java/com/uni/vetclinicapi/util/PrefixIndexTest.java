@@ -0,0 +1,63 @@
+package com.uni.vetclinicapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class PrefixIndexTest {
+
+    @Test
+    void executePrefixIndexSearch_ShouldMatchStartOfAnyTermIgnoringCase() {
+        // Arrange
+        PrefixIndex<Integer, String> index = new PrefixIndex<>();
+        index.put(1, "Martin Petrov", List.of("Martin", "Petrov", "martin@vetclinic.com"));
+        index.put(2, "Maria Ivanova", List.of("Maria", "Ivanova", "maria@vetclinic.com"));
+        index.put(3, "Petar Marinov", List.of("Petar", "Marinov", "petar@vetclinic.com"));
+        // Act
+        List<String> actualMatches = index.search("MAR", 10);
+        // Assert
+        Assertions.assertEquals(List.of("Maria Ivanova", "Petar Marinov", "Martin Petrov"), actualMatches);
+    }
+
+    @Test
+    void executePrefixIndexSearch_ShouldMatchEveryWordOfTheQuery() {
+        // Arrange
+        PrefixIndex<Integer, String> index = new PrefixIndex<>();
+        index.put(1, "Martin Petrov", List.of("Martin", "Petrov"));
+        index.put(2, "Martin Ivanov", List.of("Martin", "Ivanov"));
+        // Act
+        List<String> actualMatches = index.search("iv mart", 10);
+        // Assert
+        Assertions.assertEquals(List.of("Martin Ivanov"), actualMatches);
+    }
+
+    @Test
+    void executePrefixIndexPut_ShouldReplaceTheTermsOfTheUpdatedValue() {
+        // Arrange
+        PrefixIndex<Integer, String> index = new PrefixIndex<>();
+        index.put(1, "Rex", List.of("Rex"));
+        index.put(2, "Rocky", List.of("Rocky"));
+        // Act
+        index.put(1, "Max", List.of("Max"));
+        index.remove(2);
+        // Assert
+        Assertions.assertEquals(List.of(), index.search("r", 10));
+        Assertions.assertEquals(List.of("Max"), index.search("m", 10));
+        Assertions.assertEquals(1, index.size());
+    }
+
+    @Test
+    void executePrefixIndexSearch_ShouldReturnEachValueOnceUpToTheLimit() {
+        // Arrange
+        PrefixIndex<Integer, String> index = new PrefixIndex<>();
+        for (int i = 0; i < 20; i++) {
+            index.put(i, "Pet" + i, List.of("Pet" + i, "Pet"));
+        }
+        // Act
+        List<String> actualMatches = index.search("pet", 5);
+        // Assert
+        Assertions.assertEquals(5, actualMatches.size());
+        Assertions.assertEquals(5, actualMatches.stream().distinct().count());
+    }
+}
@@ -0,0 +1,42 @@
+package com.uni.vetclinicapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class StripedLocksTest {
+
+    @Test
+    void executeStripedLocksGet_ShouldReturnTheSameLockForEqualKeys() {
+        // Arrange
+        StripedLocks locks = new StripedLocks(16);
+        // Act
+        boolean actualSame = locks.get("Vet1 2024-05-01") == locks.get(new String("Vet1 2024-05-01"));
+        // Assert
+        Assertions.assertTrue(actualSame);
+    }
+
+    @Test
+    void executeStripedLocksCallLocked_ShouldRunTheWorkOfAKeyOneAtATime() throws InterruptedException {
+        // Arrange
+        StripedLocks locks = new StripedLocks(16);
+        int[] counter = new int[1];
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    locks.callLocked("Vet1 2024-05-01", () -> ++counter[0]);
+                }
+            }));
+        }
+        // Act
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // Assert
+        Assertions.assertEquals(80_000, counter[0]);
+    }
+}
@@ -0,0 +1,56 @@
+package com.uni.vetclinicapi.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+class TokenBucketLimiterTest {
+
+    @Test
+    void executeTokenBucketLimiterTryAcquire_ShouldRejectOnceBucketIsEmpty() {
+        // Arrange
+        AtomicLong clock = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, Duration.ofSeconds(3), 100, clock::get);
+        // Act
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals(0, limiter.tryAcquire("127.0.0.1"));
+        }
+        long waitMs = limiter.tryAcquire("127.0.0.1");
+        // Assert
+        Assertions.assertEquals(1000, waitMs);
+        Assertions.assertEquals(0, limiter.tryAcquire("10.0.0.1"));
+    }
+
+    @Test
+    void executeTokenBucketLimiterTryAcquire_ShouldRefillOverTime() {
+        // Arrange
+        AtomicLong clock = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, Duration.ofSeconds(2), 100, clock::get);
+        limiter.tryAcquire("viktor");
+        limiter.tryAcquire("viktor");
+        // Act
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        long firstWaitMs = limiter.tryAcquire("viktor");
+        long secondWaitMs = limiter.tryAcquire("viktor");
+        // Assert
+        Assertions.assertEquals(0, firstWaitMs);
+        Assertions.assertTrue(secondWaitMs > 0);
+    }
+
+    @Test
+    void executeTokenBucketLimiterSweepIdle_ShouldOnlyDropFullBuckets() {
+        // Arrange
+        AtomicLong clock = new AtomicLong();
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, Duration.ofSeconds(10), 100, clock::get);
+        limiter.tryAcquire("idle");
+        clock.addAndGet(Duration.ofSeconds(6).toNanos());
+        limiter.tryAcquire("active");
+        // Act
+        int removed = limiter.sweepIdle();
+        // Assert
+        Assertions.assertEquals(1, removed);
+        Assertions.assertEquals(1, limiter.size());
+    }
+}